@@ -0,0 +1,45 @@
+package com.emobile.springtodo.benchmark;
+
+import com.emobile.springtodo.dto.response.PageResponse;
+import com.emobile.springtodo.dto.response.TodoResponseDTO;
+import com.emobile.springtodo.entity.TodoEntity;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.LongStream;
+
+final class BenchmarkData {
+
+    static final int PAGE_SIZE = 20;
+
+    static final LocalDateTime CREATED_AT = LocalDateTime.of(2024, 11, 3, 14, 25, 36, 123_456_000);
+
+    private BenchmarkData() {
+    }
+
+    static TodoEntity entity(long id) {
+        TodoEntity entity = new TodoEntity();
+        entity.setId(id);
+        entity.setTitle("Prepare release notes #" + id);
+        entity.setDescription("Collect merged pull requests and describe user-facing changes");
+        entity.setCompleted(id % 2 == 0);
+        entity.setCreatedAt(CREATED_AT);
+        entity.setUpdatedAt(CREATED_AT.plusMinutes(id));
+        return entity;
+    }
+
+    static List<TodoEntity> entities() {
+        return LongStream.rangeClosed(1, PAGE_SIZE).mapToObj(BenchmarkData::entity).toList();
+    }
+
+    static TodoResponseDTO response(long id) {
+        TodoEntity entity = entity(id);
+        return new TodoResponseDTO(entity.getId(), entity.getTitle(), entity.getDescription(),
+                entity.isCompleted(), entity.getCreatedAt(), entity.getUpdatedAt());
+    }
+
+    static PageResponse<TodoResponseDTO> page() {
+        List<TodoResponseDTO> content = LongStream.rangeClosed(1, PAGE_SIZE).mapToObj(BenchmarkData::response).toList();
+        return new PageResponse<>(content, 1_000L);
+    }
+}
@@ -0,0 +1,43 @@
+package com.emobile.springtodo.benchmark;
+
+import com.emobile.springtodo.config.RedisConfig;
+import com.emobile.springtodo.dto.response.PageResponse;
+import com.emobile.springtodo.dto.response.TodoResponseDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    private final ObjectMapper objectMapper = new RedisConfig().objectMapper();
+
+    private final TodoResponseDTO todo = BenchmarkData.response(1);
+
+    private final PageResponse<TodoResponseDTO> page = BenchmarkData.page();
+
+    @Benchmark
+    public byte[] writeTodo() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(todo);
+    }
+
+    @Benchmark
+    public byte[] writePage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+}
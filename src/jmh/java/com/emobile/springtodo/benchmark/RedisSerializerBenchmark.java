@@ -0,0 +1,56 @@
+package com.emobile.springtodo.benchmark;
+
+import com.emobile.springtodo.cache.TodoResponseRedisSerializer;
+import com.emobile.springtodo.config.RedisConfig;
+import com.emobile.springtodo.dto.response.TodoResponseDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RedisSerializerBenchmark {
+
+    @Param({"json", "binary"})
+    private String codec;
+
+    private final TodoResponseDTO todo = BenchmarkData.response(1);
+
+    private RedisSerializer<TodoResponseDTO> serializer;
+
+    private byte[] serialized;
+
+    @Setup
+    public void setUp() {
+        serializer = codec.equals("binary")
+                ? new TodoResponseRedisSerializer()
+                : new Jackson2JsonRedisSerializer<>(new RedisConfig().objectMapper(), TodoResponseDTO.class);
+        serialized = serializer.serialize(todo);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize(todo);
+    }
+
+    @Benchmark
+    public TodoResponseDTO deserialize() {
+        return serializer.deserialize(serialized);
+    }
+}
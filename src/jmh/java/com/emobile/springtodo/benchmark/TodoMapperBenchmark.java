@@ -0,0 +1,43 @@
+package com.emobile.springtodo.benchmark;
+
+import com.emobile.springtodo.dto.response.TodoResponseDTO;
+import com.emobile.springtodo.entity.TodoEntity;
+import com.emobile.springtodo.mapper.TodoMapper;
+import com.emobile.springtodo.mapper.TodoMapperImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TodoMapperBenchmark {
+
+    private final TodoMapper mapper = new TodoMapperImpl();
+
+    private final TodoEntity entity = BenchmarkData.entity(1);
+
+    private final List<TodoEntity> entities = BenchmarkData.entities();
+
+    @Benchmark
+    public TodoResponseDTO entityToResponse() {
+        return mapper.entityToResponse(entity);
+    }
+
+    @Benchmark
+    public List<TodoResponseDTO> listTodoEntityToListTodoResponse() {
+        return mapper.listTodoEntityToListTodoResponse(entities);
+    }
+}
@@ -0,0 +1,72 @@
+package com.emobile.springtodo.benchmark;
+
+import com.emobile.springtodo.entity.TodoEntity;
+import com.emobile.springtodo.mapper.TodoRowMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.sql.rowset.CachedRowSet;
+import javax.sql.rowset.RowSetMetaDataImpl;
+import javax.sql.rowset.RowSetProvider;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TodoRowMapperBenchmark {
+
+    private final TodoRowMapper rowMapper = new TodoRowMapper();
+
+    private CachedRowSet resultSet;
+
+    @Setup
+    public void setUp() throws SQLException {
+        RowSetMetaDataImpl metaData = new RowSetMetaDataImpl();
+        metaData.setColumnCount(6);
+        column(metaData, 1, "id", Types.BIGINT);
+        column(metaData, 2, "title", Types.VARCHAR);
+        column(metaData, 3, "description", Types.VARCHAR);
+        column(metaData, 4, "completed", Types.BOOLEAN);
+        column(metaData, 5, "created_at", Types.TIMESTAMP);
+        column(metaData, 6, "updated_at", Types.TIMESTAMP);
+
+        resultSet = RowSetProvider.newFactory().createCachedRowSet();
+        resultSet.setMetaData(metaData);
+        TodoEntity entity = BenchmarkData.entity(1);
+        resultSet.moveToInsertRow();
+        resultSet.updateLong(1, entity.getId());
+        resultSet.updateString(2, entity.getTitle());
+        resultSet.updateString(3, entity.getDescription());
+        resultSet.updateBoolean(4, entity.isCompleted());
+        resultSet.updateTimestamp(5, Timestamp.valueOf(entity.getCreatedAt()));
+        resultSet.updateTimestamp(6, Timestamp.valueOf(entity.getUpdatedAt()));
+        resultSet.insertRow();
+        resultSet.moveToCurrentRow();
+        resultSet.first();
+    }
+
+    @Benchmark
+    public TodoEntity mapRow() throws SQLException {
+        return rowMapper.mapRow(resultSet, 0);
+    }
+
+    private static void column(RowSetMetaDataImpl metaData, int index, String name, int type) throws SQLException {
+        metaData.setColumnName(index, name);
+        metaData.setColumnLabel(index, name);
+        metaData.setColumnType(index, type);
+    }
+}
@@ -3,9 +3,11 @@ package com.emobile.springtodo;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.core.Ordered;
 
 @SpringBootApplication
-@EnableCaching
+// Caching wraps transactions, so a cache hit never opens one and never takes a connection.
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
 public class SpringToDoApplication {
 
     public static void main(String[] args) {
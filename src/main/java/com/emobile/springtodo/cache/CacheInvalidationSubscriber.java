@@ -0,0 +1,82 @@
+package com.emobile.springtodo.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+@Slf4j
+public class CacheInvalidationSubscriber implements SmartLifecycle, DisposableBean {
+
+    private final RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+
+    private final Duration retryInterval;
+
+    private volatile boolean running;
+
+    private volatile Thread worker;
+
+    public CacheInvalidationSubscriber(RedisConnectionFactory connectionFactory,
+                                       TwoLevelCacheManager cacheManager,
+                                       TodoListVersion listVersion,
+                                       Duration retryInterval) {
+        this.retryInterval = retryInterval;
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(
+                (message, pattern) -> cacheManager.onInvalidation(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(TwoLevelCacheManager.INVALIDATION_CHANNEL));
+        container.addMessageListener(
+                (message, pattern) -> listVersion.onBump(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(TodoListVersion.CHANNEL));
+        container.afterPropertiesSet();
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        worker = Thread.ofVirtual().name("cache-invalidation-subscriber").start(this::subscribe);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+        }
+        container.stop();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        container.destroy();
+    }
+
+    private void subscribe() {
+        while (running) {
+            try {
+                container.start();
+                log.info("Subscribed to cache invalidation channel {}", TwoLevelCacheManager.INVALIDATION_CHANNEL);
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Cache invalidation subscription failed, retrying in {}: {}", retryInterval, e.getMessage());
+                container.stop();
+            }
+            try {
+                Thread.sleep(retryInterval);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+}
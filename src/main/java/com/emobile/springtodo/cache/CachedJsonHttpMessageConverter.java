@@ -0,0 +1,53 @@
+package com.emobile.springtodo.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The JSON converter, except that values served from the local cache are written from their
+ * pre-rendered bytes instead of being serialized again.
+ */
+public class CachedJsonHttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+    private final TodoJsonCache jsonCache;
+
+    public CachedJsonHttpMessageConverter(ObjectMapper objectMapper, TodoJsonCache jsonCache) {
+        super(objectMapper);
+        this.jsonCache = jsonCache;
+    }
+
+    @Override
+    protected Long getContentLength(Object object, MediaType contentType) throws IOException {
+        byte[] json = rendered(object, contentType);
+        return json != null ? Long.valueOf(json.length) : super.getContentLength(object, contentType);
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        byte[] json = rendered(object, outputMessage.getHeaders().getContentType());
+        if (json == null) {
+            super.writeInternal(object, type, outputMessage);
+            return;
+        }
+        outputMessage.getBody().write(json);
+        jsonCache.recordServed();
+    }
+
+    private byte[] rendered(Object object, MediaType contentType) {
+        // The bytes are UTF-8, so a response in any other charset goes through Jackson.
+        Charset charset = contentType != null ? contentType.getCharset() : null;
+        if (charset != null && !StandardCharsets.UTF_8.equals(charset)) {
+            return null;
+        }
+        return jsonCache.get(object);
+    }
+}
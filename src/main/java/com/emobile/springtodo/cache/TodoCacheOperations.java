@@ -0,0 +1,112 @@
+package com.emobile.springtodo.cache;
+
+import com.emobile.springtodo.dto.response.TodoResponseDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.util.ByteUtils;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+public class TodoCacheOperations {
+
+    public static final String CACHE_NAME = "todos";
+
+    public static final String MISSES_CACHE_NAME = "todoMisses";
+
+    private final RedisConnectionFactory connectionFactory;
+
+    private final RedisCacheConfiguration cacheConfiguration;
+
+    private final TwoLevelCacheManager cacheManager;
+
+    private final MeterRegistry meterRegistry;
+
+    public TodoResponseDTO get(Long id) {
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        return cache != null ? cache.get(id, TodoResponseDTO.class) : null;
+    }
+
+    public boolean isKnownMissing(Long id) {
+        Cache cache = cacheManager.getCache(MISSES_CACHE_NAME);
+        return cache != null && cache.get(id) != null;
+    }
+
+    public void markMissing(Long id) {
+        Cache cache = cacheManager.getCache(MISSES_CACHE_NAME);
+        if (cache != null) {
+            cache.put(id, Boolean.TRUE);
+        }
+    }
+
+    public void markMissing(Collection<Long> ids) {
+        Cache cache = cacheManager.getCache(MISSES_CACHE_NAME);
+        if (cache != null) {
+            ids.forEach(id -> cache.put(id, Boolean.TRUE));
+        }
+    }
+
+    public void refresh(List<TodoResponseDTO> todos) {
+        if (todos.isEmpty()) {
+            return;
+        }
+        List<Long> ids = todos.stream().map(TodoResponseDTO::id).toList();
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            connection.openPipeline();
+            for (TodoResponseDTO todo : todos) {
+                connection.stringCommands().set(
+                        key(todo.id()),
+                        ByteUtils.getBytes(cacheConfiguration.getValueSerializationPair().write(todo)),
+                        expiration(todo),
+                        RedisStringCommands.SetOption.upsert());
+            }
+            publishInvalidation(connection, ids);
+            connection.closePipeline();
+        }
+        cacheManager.evictLocal(CACHE_NAME, ids);
+        meterRegistry.counter("todo.cache.puts", "cache", CACHE_NAME).increment(todos.size());
+    }
+
+    public void evict(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        byte[][] keys = ids.stream().map(this::key).toArray(byte[][]::new);
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            connection.openPipeline();
+            connection.keyCommands().del(keys);
+            publishInvalidation(connection, ids);
+            connection.closePipeline();
+        }
+        cacheManager.evictLocal(CACHE_NAME, ids);
+    }
+
+    private void publishInvalidation(RedisConnection connection, Collection<Long> ids) {
+        if (cacheManager.isLocalEnabled()) {
+            connection.publish(
+                    TwoLevelCacheManager.INVALIDATION_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                    cacheManager.invalidationMessage(CACHE_NAME, ids));
+        }
+    }
+
+    private byte[] key(Long id) {
+        String cacheKey = cacheConfiguration.getKeyPrefixFor(CACHE_NAME) + id;
+        return ByteUtils.getBytes(cacheConfiguration.getKeySerializationPair().write(cacheKey));
+    }
+
+    private Expiration expiration(TodoResponseDTO todo) {
+        Duration ttl = cacheConfiguration.getTtlFunction().getTimeToLive(todo.id(), todo);
+        return ttl.isZero() || ttl.isNegative() ? Expiration.persistent() : Expiration.from(ttl);
+    }
+}
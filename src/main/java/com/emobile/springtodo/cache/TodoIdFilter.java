@@ -0,0 +1,161 @@
+package com.emobile.springtodo.cache;
+
+import com.emobile.springtodo.repository.TodoRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * In-memory filter of existing todo ids used to answer lookups for missing ids without a query.
+ * Sequence ids commit out of order, so when a rebuild sees some id, a lower one may still belong
+ * to a transaction in flight. The filter therefore only vouches for ids up to the highest id seen
+ * by the rebuild before, which gives such transactions a whole interval to commit: below that
+ * watermark, an id absent from the filter has never existed. Newer ids always go to the database.
+ */
+@Slf4j
+@Component
+public class TodoIdFilter implements SmartLifecycle {
+
+    private final TodoRepository repository;
+
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final boolean enabled;
+
+    private final long expectedIds;
+
+    private final double falsePositiveRate;
+
+    private final Duration rebuildInterval;
+
+    private final Duration settleDelay;
+
+    private final Counter rejections;
+
+    private volatile Snapshot snapshot;
+
+    private volatile ScheduledExecutorService executor;
+
+    public TodoIdFilter(TodoRepository repository,
+                        PlatformTransactionManager transactionManager,
+                        MeterRegistry meterRegistry,
+                        @Value("${todo.id-filter.enabled:true}") boolean enabled,
+                        @Value("${todo.id-filter.expected-ids:1000000}") long expectedIds,
+                        @Value("${todo.id-filter.false-positive-rate:0.01}") double falsePositiveRate,
+                        @Value("${todo.id-filter.rebuild-interval:30m}") Duration rebuildInterval,
+                        @Value("${todo.id-filter.settle-delay:1m}") Duration settleDelay) {
+        this.repository = repository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.enabled = enabled;
+        this.expectedIds = expectedIds;
+        this.falsePositiveRate = falsePositiveRate;
+        this.rebuildInterval = rebuildInterval;
+        this.settleDelay = settleDelay;
+        this.rejections = Counter.builder("todo.id-filter.rejections")
+                .description("Lookups answered as not found by the id filter without a query")
+                .register(meterRegistry);
+        Gauge.builder("todo.id-filter.watermark", this, filter -> filter.watermark())
+                .description("Highest id covered by the id filter")
+                .register(meterRegistry);
+    }
+
+    public boolean isDefinitelyAbsent(long id) {
+        Snapshot current = snapshot;
+        if (current == null || id > current.watermark() || current.ids().mightContain(id)) {
+            return false;
+        }
+        rejections.increment();
+        return true;
+    }
+
+    public boolean covers(long id) {
+        Snapshot current = snapshot;
+        return current != null && id <= current.watermark();
+    }
+
+    public void add(long id) {
+        Snapshot current = snapshot;
+        if (current != null) {
+            current.ids().add(id);
+        }
+    }
+
+    public void rebuild() {
+        long started = System.nanoTime();
+        IdBloomFilter ids = new IdBloomFilter(Math.max(expectedIds, 2 * repository.count()), falsePositiveRate);
+        LongAccumulator watermark = new LongAccumulator(Math::max, 0);
+        // Inside a transaction so the driver honours the fetch size and streams instead of buffering.
+        readOnlyTransaction.executeWithoutResult(status -> repository.streamIds(id -> {
+            ids.add(id);
+            watermark.accumulate(id);
+        }));
+        Snapshot previous = snapshot;
+        Snapshot rebuilt = new Snapshot(ids, previous != null ? previous.highestSeen() : 0, watermark.get());
+        snapshot = rebuilt;
+        log.info("Id filter rebuilt, vouching up to id {} ({} KiB) in {} ms", rebuilt.watermark(),
+                ids.sizeInBytes() / 1024, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.warn("Failed to build id filter, lookups will query the database: {}", e.getMessage());
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+                .name("todo-id-filter")
+                .daemon(true)
+                .factory());
+        // The first rebuild vouches for nothing, so the second one comes early, once in-flight writes have settled.
+        long intervalMillis = rebuildInterval.toMillis();
+        executor.scheduleWithFixedDelay(this::scheduledRebuild, Math.min(settleDelay.toMillis(), intervalMillis),
+                intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        ScheduledExecutorService current = executor;
+        if (current != null) {
+            executor = null;
+            current.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return executor != null;
+    }
+
+    private void scheduledRebuild() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.warn("Failed to rebuild id filter, keeping the previous one: {}", e.getMessage());
+        }
+    }
+
+    private double watermark() {
+        Snapshot current = snapshot;
+        return current != null ? current.watermark() : 0;
+    }
+
+    private record Snapshot(IdBloomFilter ids, long watermark, long highestSeen) {
+    }
+}
@@ -0,0 +1,70 @@
+package com.emobile.springtodo.cache;
+
+import com.emobile.springtodo.dto.response.PageResponse;
+import com.emobile.springtodo.dto.response.TodoResponseDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The HTTP-ready UTF-8 JSON of todos and pages held in the local cache, rendered once when the value
+ * enters L1 and written out as is on every hit. Entries are keyed by the identity of the cached value
+ * and go away with it, so a refreshed or evicted value never serves old bytes.
+ */
+@Slf4j
+public class TodoJsonCache {
+
+    private final ObjectMapper objectMapper;
+
+    private final boolean enabled;
+
+    private final com.github.benmanes.caffeine.cache.Cache<Object, byte[]> rendered;
+
+    private final Counter renders;
+
+    private final Counter served;
+
+    public TodoJsonCache(ObjectMapper objectMapper, boolean enabled, MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.rendered = Caffeine.newBuilder().weakKeys().build();
+        this.renders = Counter.builder("todo.cache.json.rendered")
+                .description("Cached values rendered to JSON bytes")
+                .register(meterRegistry);
+        this.served = Counter.builder("todo.cache.json.served")
+                .description("Responses written from pre-rendered JSON bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Renders a value that was just put into L1. Other values are left to the regular converter.
+     */
+    void render(Object value) {
+        if (!enabled || !(value instanceof TodoResponseDTO || value instanceof PageResponse<?>)) {
+            return;
+        }
+        try {
+            rendered.put(value, objectMapper.writeValueAsBytes(value));
+            renders.increment();
+        } catch (JsonProcessingException e) {
+            log.warn("Failed to render cached {} to JSON: {}", value.getClass().getSimpleName(), e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the rendered JSON of a value taken from L1, or null for anything else.
+     */
+    public byte[] get(Object value) {
+        if (!enabled || value == null) {
+            return null;
+        }
+        return rendered.getIfPresent(value);
+    }
+
+    public void recordServed() {
+        served.increment();
+    }
+}
@@ -0,0 +1,96 @@
+package com.emobile.springtodo.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Version stamped into every cached list page key. With L1 on, the version is held in memory: bumps
+ * on this node update it at once and bumps on other nodes arrive on {@link #CHANNEL}. It is re-read
+ * from Redis once it is older than the L1 ttl, so a lost message keeps pages stale no longer than any
+ * other L1 entry, and a page served from L1 costs no Redis call.
+ */
+@Slf4j
+@Component
+public class TodoListVersion {
+
+    public static final String CACHE_NAME = "todoPages";
+
+    public static final String CHANNEL = "todo:cache:list-version";
+
+    static final String VERSION_KEY = "todos:version";
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final long maxAgeNanos;
+
+    private final AtomicReference<Known> known = new AtomicReference<>();
+
+    public TodoListVersion(StringRedisTemplate redisTemplate,
+                           @Value("${todo.cache.l1.enabled:true}") boolean localEnabled,
+                           @Value("${todo.cache.l1.ttl:10s}") Duration localTtl) {
+        this.redisTemplate = redisTemplate;
+        this.maxAgeNanos = localEnabled ? localTtl.toNanos() : 0;
+    }
+
+    public String current() {
+        Known current = known.get();
+        if (current != null && System.nanoTime() - current.readAt() < maxAgeNanos) {
+            return Long.toString(current.version());
+        }
+        String stored = redisTemplate.opsForValue().get(VERSION_KEY);
+        long version = stored != null ? Long.parseLong(stored) : 0;
+        // A bump seen while reading is newer than the value read, so it wins.
+        known.compareAndSet(current, new Known(version, System.nanoTime()));
+        return Long.toString(version);
+    }
+
+    public void bump() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    increment();
+                }
+            });
+        } else {
+            increment();
+        }
+    }
+
+    public void onBump(String message) {
+        try {
+            advance(Long.parseLong(message));
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring malformed list version message: {}", message);
+        }
+    }
+
+    private void increment() {
+        Long version = redisTemplate.opsForValue().increment(VERSION_KEY);
+        if (version == null || maxAgeNanos == 0) {
+            return;
+        }
+        advance(version);
+        try {
+            redisTemplate.convertAndSend(CHANNEL, version.toString());
+        } catch (RuntimeException e) {
+            log.warn("Failed to publish list version {}: {}", version, e.getMessage());
+        }
+    }
+
+    private void advance(long version) {
+        Known next = new Known(version, System.nanoTime());
+        known.accumulateAndGet(next, (current, candidate) ->
+                current == null || candidate.version() > current.version() ? candidate : current);
+    }
+
+    private record Known(long version, long readAt) {
+    }
+}
@@ -0,0 +1,141 @@
+package com.emobile.springtodo.cache;
+
+import com.emobile.springtodo.dto.response.TodoResponseDTO;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * Binary cache format for {@link TodoResponseDTO}:
+ * version byte, flags byte, then the present fields in declaration order.
+ * Numbers are varints, strings are length-prefixed UTF-8 and timestamps are
+ * zigzag epoch seconds followed by nanos. Values in an unknown format read as a cache miss.
+ */
+public class TodoResponseRedisSerializer implements RedisSerializer<TodoResponseDTO> {
+
+    static final byte VERSION = 1;
+
+    private static final int COMPLETED = 1;
+    private static final int HAS_ID = 1 << 1;
+    private static final int HAS_TITLE = 1 << 2;
+    private static final int HAS_DESCRIPTION = 1 << 3;
+    private static final int HAS_CREATED_AT = 1 << 4;
+    private static final int HAS_UPDATED_AT = 1 << 5;
+
+    private static final int MAX_VARINT_BYTES = 10;
+
+    @Override
+    public byte[] serialize(TodoResponseDTO todo) {
+        if (todo == null) {
+            return null;
+        }
+        byte[] title = todo.title() != null ? todo.title().getBytes(StandardCharsets.UTF_8) : null;
+        byte[] description = todo.description() != null ? todo.description().getBytes(StandardCharsets.UTF_8) : null;
+
+        int flags = (todo.completed() ? COMPLETED : 0)
+                | (todo.id() != null ? HAS_ID : 0)
+                | (title != null ? HAS_TITLE : 0)
+                | (description != null ? HAS_DESCRIPTION : 0)
+                | (todo.createdAt() != null ? HAS_CREATED_AT : 0)
+                | (todo.updatedAt() != null ? HAS_UPDATED_AT : 0);
+
+        byte[] buffer = new byte[2 + 5 * MAX_VARINT_BYTES
+                + (title != null ? title.length : 0) + (description != null ? description.length : 0)];
+        buffer[0] = VERSION;
+        buffer[1] = (byte) flags;
+        int position = 2;
+        if (todo.id() != null) {
+            position = writeVarint(buffer, position, todo.id());
+        }
+        position = writeBytes(buffer, position, title);
+        position = writeBytes(buffer, position, description);
+        position = writeTimestamp(buffer, position, todo.createdAt());
+        position = writeTimestamp(buffer, position, todo.updatedAt());
+        return Arrays.copyOf(buffer, position);
+    }
+
+    @Override
+    public TodoResponseDTO deserialize(byte[] bytes) {
+        if (bytes == null || bytes.length < 2 || bytes[0] != VERSION) {
+            return null;
+        }
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes, 2, bytes.length - 2);
+            int flags = bytes[1];
+            Long id = (flags & HAS_ID) != 0 ? readVarint(buffer) : null;
+            String title = (flags & HAS_TITLE) != 0 ? readString(buffer) : null;
+            String description = (flags & HAS_DESCRIPTION) != 0 ? readString(buffer) : null;
+            LocalDateTime createdAt = (flags & HAS_CREATED_AT) != 0 ? readTimestamp(buffer) : null;
+            LocalDateTime updatedAt = (flags & HAS_UPDATED_AT) != 0 ? readTimestamp(buffer) : null;
+            return new TodoResponseDTO(id, title, description, (flags & COMPLETED) != 0, createdAt, updatedAt);
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new SerializationException("Malformed cached todo", e);
+        }
+    }
+
+    @Override
+    public Class<?> getTargetType() {
+        return TodoResponseDTO.class;
+    }
+
+    private static int writeTimestamp(byte[] buffer, int position, LocalDateTime timestamp) {
+        if (timestamp == null) {
+            return position;
+        }
+        long seconds = timestamp.toEpochSecond(ZoneOffset.UTC);
+        position = writeVarint(buffer, position, (seconds << 1) ^ (seconds >> 63));
+        return writeVarint(buffer, position, timestamp.getNano());
+    }
+
+    private static int writeBytes(byte[] buffer, int position, byte[] value) {
+        if (value == null) {
+            return position;
+        }
+        position = writeVarint(buffer, position, value.length);
+        System.arraycopy(value, 0, buffer, position, value.length);
+        return position + value.length;
+    }
+
+    private static int writeVarint(byte[] buffer, int position, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+        return position;
+    }
+
+    private static LocalDateTime readTimestamp(ByteBuffer buffer) {
+        long zigzag = readVarint(buffer);
+        long seconds = (zigzag >>> 1) ^ -(zigzag & 1);
+        return LocalDateTime.ofEpochSecond(seconds, (int) readVarint(buffer), ZoneOffset.UTC);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = (int) readVarint(buffer);
+        if (length < 0 || length > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        String value = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    private static long readVarint(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Varint is too long");
+    }
+}
@@ -0,0 +1,285 @@
+package com.emobile.springtodo.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.NullValue;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+public class TwoLevelCache implements Cache {
+
+    private final String name;
+
+    private final Cache redisCache;
+
+    private final com.github.benmanes.caffeine.cache.Cache<String, Object> localCache;
+
+    private final TwoLevelCacheManager cacheManager;
+
+    private final boolean publishPuts;
+
+    private final Counter localHits;
+
+    private final Counter localMisses;
+
+    private final Counter redisHits;
+
+    private final Counter redisMisses;
+
+    private final Counter puts;
+
+    private final Timer loads;
+
+    private final Counter coalescedLocal;
+
+    private final Counter coalescedCluster;
+
+    private final ConcurrentMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    public TwoLevelCache(String name,
+                         Cache redisCache,
+                         com.github.benmanes.caffeine.cache.Cache<String, Object> localCache,
+                         TwoLevelCacheManager cacheManager,
+                         boolean publishPuts,
+                         MeterRegistry meterRegistry) {
+        this.name = name;
+        this.redisCache = redisCache;
+        this.localCache = localCache;
+        this.cacheManager = cacheManager;
+        this.publishPuts = publishPuts;
+        this.localHits = requests(meterRegistry, "l1", "hit");
+        this.localMisses = requests(meterRegistry, "l1", "miss");
+        this.redisHits = requests(meterRegistry, "l2", "hit");
+        this.redisMisses = requests(meterRegistry, "l2", "miss");
+        this.puts = Counter.builder("todo.cache.puts")
+                .description("Values written to the cache")
+                .tag("cache", name)
+                .register(meterRegistry);
+        this.loads = Timer.builder("todo.cache.load")
+                .description("Time to load a missing value from the database")
+                .tag("cache", name)
+                .register(meterRegistry);
+        this.coalescedLocal = coalesced(meterRegistry, "local");
+        this.coalescedCluster = coalesced(meterRegistry, "cluster");
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return redisCache.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        ValueWrapper local = getLocal(key);
+        if (local != null) {
+            return local;
+        }
+        return getRemote(key);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    /**
+     * Single-flight load: concurrent misses for the same key on this node share one in-flight
+     * load, and across nodes only the holder of a short Redis lease queries the database while
+     * the others poll Redis for its result.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper local = getLocal(key);
+        if (local != null) {
+            return (T) local.get();
+        }
+        String localKey = localKey(key);
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> leader = inFlight.putIfAbsent(localKey, flight);
+        if (leader != null) {
+            coalescedLocal.increment();
+            return (T) await(leader);
+        }
+        try {
+            Object value = load(key, localKey, valueLoader);
+            flight.complete(value);
+            return (T) value;
+        } catch (RuntimeException e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(localKey, flight);
+        }
+    }
+
+    private Object load(Object key, String localKey, Callable<?> valueLoader) {
+        ValueWrapper remote = getRemote(key);
+        if (remote != null) {
+            return remote.get();
+        }
+        long deadline = System.nanoTime() + cacheManager.leaseTtl().toNanos();
+        boolean leased = cacheManager.tryAcquireLease(name, localKey);
+        if (!leased) {
+            coalescedCluster.increment();
+        }
+        while (!leased && System.nanoTime() < deadline) {
+            pause(key, valueLoader);
+            remote = redisCache.get(key);
+            if (remote != null) {
+                putLocal(key, remote.get());
+                return remote.get();
+            }
+            leased = cacheManager.tryAcquireLease(name, localKey);
+        }
+        try {
+            Object value = call(key, valueLoader);
+            redisCache.put(key, value);
+            puts.increment();
+            putLocal(key, value);
+            return value;
+        } finally {
+            if (leased) {
+                cacheManager.releaseLease(name, localKey);
+            }
+        }
+    }
+
+    private ValueWrapper getRemote(Object key) {
+        ValueWrapper remote = redisCache.get(key);
+        if (remote == null) {
+            redisMisses.increment();
+            return null;
+        }
+        redisHits.increment();
+        putLocal(key, remote.get());
+        return remote;
+    }
+
+    private Object call(Object key, Callable<?> valueLoader) {
+        long started = System.nanoTime();
+        try {
+            return valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        } finally {
+            loads.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void pause(Object key, Callable<?> valueLoader) {
+        try {
+            Thread.sleep(cacheManager.leasePollInterval());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+    }
+
+    private static Object await(CompletableFuture<Object> leader) {
+        try {
+            return leader.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        redisCache.put(key, value);
+        puts.increment();
+        putLocal(key, value);
+        if (publishPuts) {
+            cacheManager.publishInvalidation(name, List.of(localKey(key)));
+        }
+    }
+
+    @Override
+    public void evict(Object key) {
+        redisCache.evict(key);
+        evictLocal(List.of(localKey(key)));
+        cacheManager.publishInvalidation(name, List.of(localKey(key)));
+    }
+
+    @Override
+    public void clear() {
+        redisCache.clear();
+        clearLocal();
+        cacheManager.publishInvalidation(name, List.of());
+    }
+
+    void evictLocal(Iterable<String> keys) {
+        if (localCache != null) {
+            localCache.invalidateAll(keys);
+        }
+    }
+
+    void clearLocal() {
+        if (localCache != null) {
+            localCache.invalidateAll();
+        }
+    }
+
+    static String localKey(Object key) {
+        return String.valueOf(key);
+    }
+
+    private ValueWrapper getLocal(Object key) {
+        if (localCache == null) {
+            return null;
+        }
+        Object value = localCache.getIfPresent(localKey(key));
+        if (value == null) {
+            localMisses.increment();
+            return null;
+        }
+        localHits.increment();
+        return new SimpleValueWrapper(value == NullValue.INSTANCE ? null : value);
+    }
+
+    private void putLocal(Object key, Object value) {
+        if (localCache != null) {
+            localCache.put(localKey(key), value != null ? value : NullValue.INSTANCE);
+            cacheManager.jsonCache().render(value);
+        }
+    }
+
+    private Counter coalesced(MeterRegistry meterRegistry, String scope) {
+        return Counter.builder("todo.cache.coalesced")
+                .description("Cache misses that waited for another loader instead of querying the database")
+                .tag("cache", name)
+                .tag("scope", scope)
+                .register(meterRegistry);
+    }
+
+    private Counter requests(MeterRegistry meterRegistry, String level, String result) {
+        return Counter.builder("todo.cache.requests")
+                .tag("cache", name)
+                .tag("level", level)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,189 @@
+package com.emobile.springtodo.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+@Slf4j
+public class TwoLevelCacheManager implements CacheManager {
+
+    public static final String INVALIDATION_CHANNEL = "todo:cache:invalidation";
+
+    private static final String LEASE_PREFIX = "todo:cache:lease:";
+
+    private static final RedisScript<Long> RELEASE_LEASE = RedisScript.of(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private final RedisCacheManager redisCacheManager;
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final MeterRegistry meterRegistry;
+
+    private final TodoJsonCache jsonCache;
+
+    private final boolean localEnabled;
+
+    private final long localMaxSize;
+
+    private final Duration localTtl;
+
+    private final Duration leaseTtl;
+
+    private final Duration leasePollInterval;
+
+    private final Set<String> immutableCaches;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final ConcurrentMap<String, TwoLevelCache> caches = new ConcurrentHashMap<>();
+
+    public TwoLevelCacheManager(RedisCacheManager redisCacheManager,
+                                StringRedisTemplate redisTemplate,
+                                MeterRegistry meterRegistry,
+                                TodoJsonCache jsonCache,
+                                boolean localEnabled,
+                                long localMaxSize,
+                                Duration localTtl,
+                                Duration leaseTtl,
+                                Duration leasePollInterval,
+                                Set<String> immutableCaches) {
+        this.redisCacheManager = redisCacheManager;
+        this.redisTemplate = redisTemplate;
+        this.meterRegistry = meterRegistry;
+        this.jsonCache = jsonCache;
+        this.localEnabled = localEnabled;
+        this.localMaxSize = localMaxSize;
+        this.localTtl = localTtl;
+        this.leaseTtl = leaseTtl;
+        this.leasePollInterval = leasePollInterval;
+        this.immutableCaches = Set.copyOf(immutableCaches);
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, this::createCache);
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return Collections.unmodifiableSet(caches.keySet());
+    }
+
+    public void evictLocal(String cacheName, Collection<?> keys) {
+        TwoLevelCache cache = caches.get(cacheName);
+        if (cache != null) {
+            cache.evictLocal(keys.stream().map(TwoLevelCache::localKey).toList());
+        }
+    }
+
+    public byte[] invalidationMessage(String cacheName, Collection<?> keys) {
+        StringBuilder message = new StringBuilder(nodeId).append('\n').append(cacheName);
+        keys.forEach(key -> message.append('\n').append(TwoLevelCache.localKey(key)));
+        return message.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    public boolean isLocalEnabled() {
+        return localEnabled;
+    }
+
+    void publishInvalidation(String cacheName, Collection<String> keys) {
+        if (!localEnabled) {
+            return;
+        }
+        try {
+            redisTemplate.convertAndSend(INVALIDATION_CHANNEL,
+                    new String(invalidationMessage(cacheName, keys), StandardCharsets.UTF_8));
+        } catch (RuntimeException e) {
+            log.warn("Failed to publish cache invalidation for {}: {}", cacheName, e.getMessage());
+        }
+    }
+
+    /**
+     * Claims the cluster-wide right to load {@code key} from the database. Other nodes that miss
+     * the same key while the lease is held wait for the value to appear in Redis instead.
+     * If Redis cannot be reached the caller proceeds as if it held the lease.
+     */
+    boolean tryAcquireLease(String cacheName, String key) {
+        try {
+            return Boolean.TRUE.equals(redisTemplate.opsForValue()
+                    .setIfAbsent(leaseKey(cacheName, key), nodeId, leaseTtl));
+        } catch (RuntimeException e) {
+            log.warn("Failed to acquire cache lease for {}::{}: {}", cacheName, key, e.getMessage());
+            return true;
+        }
+    }
+
+    void releaseLease(String cacheName, String key) {
+        try {
+            redisTemplate.execute(RELEASE_LEASE, List.of(leaseKey(cacheName, key)), nodeId);
+        } catch (RuntimeException e) {
+            log.warn("Failed to release cache lease for {}::{}: {}", cacheName, key, e.getMessage());
+        }
+    }
+
+    TodoJsonCache jsonCache() {
+        return jsonCache;
+    }
+
+    Duration leaseTtl() {
+        return leaseTtl;
+    }
+
+    Duration leasePollInterval() {
+        return leasePollInterval;
+    }
+
+    public void onInvalidation(String message) {
+        List<String> lines = Arrays.asList(message.split("\n"));
+        if (lines.size() < 2 || nodeId.equals(lines.get(0))) {
+            return;
+        }
+        TwoLevelCache cache = caches.get(lines.get(1));
+        if (cache == null) {
+            return;
+        }
+        if (lines.size() == 2) {
+            cache.clearLocal();
+        } else {
+            cache.evictLocal(lines.subList(2, lines.size()));
+        }
+    }
+
+    private static String leaseKey(String cacheName, String key) {
+        return LEASE_PREFIX + cacheName + "::" + key;
+    }
+
+    private TwoLevelCache createCache(String name) {
+        Cache redisCache = redisCacheManager.getCache(name);
+        com.github.benmanes.caffeine.cache.Cache<String, Object> localCache = null;
+        if (localEnabled) {
+            localCache = Caffeine.newBuilder()
+                    .maximumSize(localMaxSize)
+                    .expireAfterWrite(localTtl)
+                    .recordStats()
+                    .build();
+            CaffeineCacheMetrics.monitor(meterRegistry, localCache, name + ".l1");
+        }
+        // A key of an immutable cache never gets a second value, so a put there cannot leave another node stale.
+        return new TwoLevelCache(name, redisCache, localCache, this, !immutableCaches.contains(name), meterRegistry);
+    }
+}
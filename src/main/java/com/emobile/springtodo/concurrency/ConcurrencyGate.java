@@ -0,0 +1,62 @@
+package com.emobile.springtodo.concurrency;
+
+import com.emobile.springtodo.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+public class ConcurrencyGate implements MeterBinder {
+
+    private final String name;
+
+    private final Semaphore permits;
+
+    private final Duration acquireTimeout;
+
+    private final LongAdder rejected = new LongAdder();
+
+    public ConcurrencyGate(String name, int limit, Duration acquireTimeout) {
+        this.name = name;
+        this.permits = new Semaphore(limit, true);
+        this.acquireTimeout = acquireTimeout;
+    }
+
+    public void acquire() {
+        try {
+            if (permits.tryAcquire(acquireTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        rejected.increment();
+        throw new ServiceUnavailableException("Too many concurrent " + name + " calls");
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    public int availablePermits() {
+        return permits.availablePermits();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("todo.concurrency.available", permits, Semaphore::availablePermits)
+                .tag("gate", name)
+                .register(registry);
+        Gauge.builder("todo.concurrency.waiting", permits, Semaphore::getQueueLength)
+                .tag("gate", name)
+                .register(registry);
+        FunctionCounter.builder("todo.concurrency.rejected", rejected, LongAdder::sum)
+                .tag("gate", name)
+                .register(registry);
+    }
+}
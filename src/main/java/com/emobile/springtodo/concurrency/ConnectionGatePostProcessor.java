@@ -0,0 +1,26 @@
+package com.emobile.springtodo.concurrency;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+
+/**
+ * Puts the database gate in front of every JDBC {@link DataSource}. Redis is left alone: Lettuce
+ * shares one native connection between callers, so there is no scarce connection to queue for.
+ */
+public class ConnectionGatePostProcessor implements BeanPostProcessor {
+
+    private final ConcurrencyGate databaseGate;
+
+    public ConnectionGatePostProcessor(ConcurrencyGate databaseGate) {
+        this.databaseGate = databaseGate;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof GatedDataSource)) {
+            return new GatedDataSource(dataSource, databaseGate);
+        }
+        return bean;
+    }
+}
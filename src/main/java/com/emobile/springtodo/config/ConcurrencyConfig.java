@@ -0,0 +1,39 @@
+package com.emobile.springtodo.config;
+
+import com.emobile.springtodo.concurrency.ConcurrencyGate;
+import com.emobile.springtodo.concurrency.ConnectionGatePostProcessor;
+import com.emobile.springtodo.concurrency.VirtualThreadPinningMonitor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class ConcurrencyConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "todo.concurrency.gate.enabled", havingValue = "true")
+    public static ConcurrencyGate databaseGate(@Value("${todo.concurrency.db.permits:10}") int permits,
+                                               @Value("${todo.concurrency.acquire-timeout:2s}") Duration timeout) {
+        return new ConcurrencyGate("db", permits, timeout);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "todo.concurrency.gate.enabled", havingValue = "true")
+    public static ConnectionGatePostProcessor connectionGatePostProcessor(
+            @Qualifier("databaseGate") ConcurrencyGate databaseGate) {
+        return new ConnectionGatePostProcessor(databaseGate);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+    public VirtualThreadPinningMonitor virtualThreadPinningMonitor(
+            MeterRegistry meterRegistry,
+            @Value("${todo.virtual-threads.pinned-threshold:20ms}") Duration threshold) {
+        return new VirtualThreadPinningMonitor(meterRegistry, threshold);
+    }
+}
@@ -0,0 +1,77 @@
+package com.emobile.springtodo.config;
+
+import com.emobile.springtodo.ratelimit.LoadShedder;
+import com.emobile.springtodo.ratelimit.LocalRateLimiter;
+import com.emobile.springtodo.ratelimit.RateLimit;
+import com.emobile.springtodo.ratelimit.RateLimitInterceptor;
+import com.emobile.springtodo.ratelimit.RateLimiter;
+import com.emobile.springtodo.ratelimit.RedisRateLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+
+@Configuration
+@ConditionalOnProperty(name = "todo.rate-limit.enabled", havingValue = "true", matchIfMissing = true)
+public class RateLimitConfig implements WebMvcConfigurer {
+
+    @Value("${todo.rate-limit.read.capacity:1000}")
+    private int readCapacity;
+
+    @Value("${todo.rate-limit.read.refill-per-second:500}")
+    private double readRefillPerSecond;
+
+    @Value("${todo.rate-limit.write.capacity:200}")
+    private int writeCapacity;
+
+    @Value("${todo.rate-limit.write.refill-per-second:100}")
+    private double writeRefillPerSecond;
+
+    @Value("${todo.rate-limit.client-header:}")
+    private String clientHeader;
+
+    @Value("${todo.load-shedding.enabled:true}")
+    private boolean loadSheddingEnabled;
+
+    @Value("${todo.load-shedding.max-pending-connections:10}")
+    private int maxPendingConnections;
+
+    @Value("${todo.load-shedding.retry-after:1s}")
+    private Duration retryAfter;
+
+    private final MeterRegistry meterRegistry;
+
+    private final RateLimiter rateLimiter;
+
+    public RateLimitConfig(StringRedisTemplate redisTemplate,
+                           MeterRegistry meterRegistry,
+                           @Value("${todo.rate-limit.mode:local}") String mode,
+                           @Value("${todo.rate-limit.max-clients:100000}") long maxClients,
+                           @Value("${todo.rate-limit.idle-timeout:10m}") Duration idleTimeout) {
+        this.meterRegistry = meterRegistry;
+        RateLimiter local = new LocalRateLimiter(maxClients, idleTimeout);
+        this.rateLimiter = "redis".equalsIgnoreCase(mode) ? new RedisRateLimiter(redisTemplate, local) : local;
+    }
+
+    @Bean
+    public RateLimitInterceptor rateLimitInterceptor() {
+        LoadShedder loadShedder = loadSheddingEnabled
+                ? new LoadShedder(meterRegistry, maxPendingConnections, retryAfter)
+                : null;
+        return new RateLimitInterceptor(rateLimiter,
+                new RateLimit(readCapacity, readRefillPerSecond),
+                new RateLimit(writeCapacity, writeRefillPerSecond),
+                clientHeader, loadShedder, meterRegistry);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(rateLimitInterceptor()).addPathPatterns("/api/todo", "/api/todo/**");
+    }
+}
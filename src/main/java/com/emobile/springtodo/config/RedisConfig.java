@@ -1,20 +1,34 @@
 package com.emobile.springtodo.config;
 
+import com.emobile.springtodo.cache.CacheInvalidationSubscriber;
+import com.emobile.springtodo.cache.CachedJsonHttpMessageConverter;
+import com.emobile.springtodo.cache.TodoCacheOperations;
+import com.emobile.springtodo.cache.TodoJsonCache;
+import com.emobile.springtodo.cache.TodoListVersion;
+import com.emobile.springtodo.cache.TodoResponseRedisSerializer;
+import com.emobile.springtodo.cache.TwoLevelCacheManager;
+import com.emobile.springtodo.dto.response.PageResponse;
+import com.emobile.springtodo.dto.response.TodoResponseDTO;
+import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
-import org.springframework.cache.CacheManager;
+import io.lettuce.core.metrics.MicrometerOptions;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 import java.time.Duration;
+import java.util.Set;
 
 @Configuration
 public class RedisConfig {
@@ -26,8 +40,87 @@ public class RedisConfig {
                 .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
     }
 
+    /**
+     * Options for the Lettuce command latency recorder that Boot wires up: publish histograms and
+     * percentiles, and tag by command only, not by local port, to keep the series count flat.
+     */
     @Bean
-    public CacheManager cacheManager(RedisConnectionFactory connectionFactory) {
+    public MicrometerOptions micrometerOptions() {
+        return MicrometerOptions.builder()
+                .histogram(true)
+                .localDistinction(false)
+                .targetPercentiles(new double[]{0.5, 0.95, 0.99})
+                .build();
+    }
+
+    @Bean
+    public RedisCacheConfiguration todosCacheConfiguration() {
+        return defaultCacheConfiguration()
+                .serializeValuesWith(RedisSerializationContext.SerializationPair
+                        .fromSerializer(new TodoResponseRedisSerializer()));
+    }
+
+    @Bean
+    public TodoJsonCache todoJsonCache(ObjectMapper objectMapper,
+                                       MeterRegistry meterRegistry,
+                                       @Value("${todo.cache.json.enabled:true}") boolean enabled) {
+        return new TodoJsonCache(objectMapper, enabled, meterRegistry);
+    }
+
+    /**
+     * Replaces Boot's Jackson converter so cache hits are written from their pre-rendered bytes.
+     */
+    @Bean
+    public CachedJsonHttpMessageConverter cachedJsonHttpMessageConverter(ObjectMapper objectMapper,
+                                                                         TodoJsonCache todoJsonCache) {
+        return new CachedJsonHttpMessageConverter(objectMapper, todoJsonCache);
+    }
+
+    @Bean
+    public TwoLevelCacheManager cacheManager(RedisConnectionFactory connectionFactory,
+                                             StringRedisTemplate stringRedisTemplate,
+                                             MeterRegistry meterRegistry,
+                                             TodoJsonCache todoJsonCache,
+                                             @Value("${todo.cache.pages.ttl:60s}") Duration pagesTtl,
+                                             @Value("${todo.cache.misses.ttl:30s}") Duration missesTtl,
+                                             @Value("${todo.cache.l1.enabled:true}") boolean localEnabled,
+                                             @Value("${todo.cache.l1.max-size:10000}") long localMaxSize,
+                                             @Value("${todo.cache.l1.ttl:10s}") Duration localTtl,
+                                             @Value("${todo.cache.lease.ttl:2s}") Duration leaseTtl,
+                                             @Value("${todo.cache.lease.poll-interval:20ms}") Duration leasePollInterval) {
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(connectionFactory)
+                .cacheDefaults(defaultCacheConfiguration())
+                .withCacheConfiguration(TodoCacheOperations.CACHE_NAME, todosCacheConfiguration())
+                .withCacheConfiguration(TodoListVersion.CACHE_NAME, todoPagesCacheConfiguration(pagesTtl))
+                .withCacheConfiguration(TodoCacheOperations.MISSES_CACHE_NAME, defaultCacheConfiguration().entryTtl(missesTtl))
+                .build();
+        redisCacheManager.afterPropertiesSet();
+        return new TwoLevelCacheManager(redisCacheManager, stringRedisTemplate, meterRegistry, todoJsonCache,
+                localEnabled, localMaxSize, localTtl, leaseTtl, leasePollInterval,
+                Set.of(TodoListVersion.CACHE_NAME, TodoCacheOperations.MISSES_CACHE_NAME));
+    }
+
+    @Bean
+    public CacheInvalidationSubscriber cacheInvalidationSubscriber(RedisConnectionFactory connectionFactory,
+                                                                   TwoLevelCacheManager cacheManager,
+                                                                   TodoListVersion listVersion) {
+        return new CacheInvalidationSubscriber(connectionFactory, cacheManager, listVersion, Duration.ofSeconds(5));
+    }
+
+    private RedisCacheConfiguration todoPagesCacheConfiguration(Duration ttl) {
+
+        ObjectMapper objectMapper = objectMapper();
+        JavaType pageType = objectMapper.getTypeFactory()
+                .constructParametricType(PageResponse.class, TodoResponseDTO.class);
+        Jackson2JsonRedisSerializer<PageResponse<TodoResponseDTO>> serializer =
+                new Jackson2JsonRedisSerializer<>(objectMapper, pageType);
+
+        return defaultCacheConfiguration()
+                .entryTtl(ttl)
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(serializer));
+    }
+
+    private RedisCacheConfiguration defaultCacheConfiguration() {
 
         Jackson2JsonRedisSerializer<Object> serializer =
                 new Jackson2JsonRedisSerializer<>(objectMapper(), Object.class);
@@ -35,14 +128,10 @@ public class RedisConfig {
         RedisSerializationContext.SerializationPair<Object> valueSerializationPair =
                 RedisSerializationContext.SerializationPair.fromSerializer(serializer);
 
-        RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig()
+        return RedisCacheConfiguration.defaultCacheConfig()
                 .entryTtl(Duration.ofMinutes(30))
                 .serializeKeysWith(RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
                 .serializeValuesWith(valueSerializationPair);
-
-        return RedisCacheManager.builder(connectionFactory)
-                .cacheDefaults(config)
-                .build();
     }
 
     @Bean
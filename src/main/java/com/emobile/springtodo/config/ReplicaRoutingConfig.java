@@ -0,0 +1,79 @@
+package com.emobile.springtodo.config;
+
+import com.emobile.springtodo.routing.CacheLoadAspect;
+import com.emobile.springtodo.routing.ReadYourWritesFilter;
+import com.emobile.springtodo.routing.ReplicaRoutingDataSource;
+import com.emobile.springtodo.routing.ReplicaSet;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Replaces the auto-configured pool with a primary pool plus one pool per replica URL. Replicas use
+ * the primary's credentials and {@code spring.datasource.hikari.*} settings.
+ */
+@Configuration
+@ConditionalOnProperty(name = "todo.datasource.replicas")
+public class ReplicaRoutingConfig {
+
+    @Bean
+    public ReplicaSet replicaSet(DataSourceProperties properties,
+                                 Environment environment,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${todo.datasource.replicas}") List<String> replicaUrls,
+                                 @Value("${todo.datasource.replica.max-lag:5s}") Duration maxLag,
+                                 @Value("${todo.datasource.replica.lag-check-interval:5s}") Duration checkInterval) {
+        HikariDataSource primary = pool(properties, environment, meterRegistry,
+                ReplicaRoutingDataSource.PRIMARY, properties.determineUrl());
+        Map<String, HikariDataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < replicaUrls.size(); i++) {
+            String name = "replica-" + i;
+            replicas.put(name, pool(properties, environment, meterRegistry, name, replicaUrls.get(i)));
+        }
+        return new ReplicaSet(primary, replicas, meterRegistry, maxLag, checkInterval);
+    }
+
+    @Bean
+    public DataSource dataSource(ReplicaSet replicaSet, MeterRegistry meterRegistry) {
+        return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(replicaSet, meterRegistry));
+    }
+
+    @Bean
+    public CacheLoadAspect cacheLoadAspect() {
+        return new CacheLoadAspect();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "todo.datasource.read-your-writes.enabled", havingValue = "true", matchIfMissing = true)
+    public ReadYourWritesFilter readYourWritesFilter(
+            @Value("${todo.datasource.read-your-writes.window:5s}") Duration window) {
+        return new ReadYourWritesFilter(window);
+    }
+
+    private static HikariDataSource pool(DataSourceProperties properties, Environment environment,
+                                         MeterRegistry meterRegistry, String name, String url) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .url(url)
+                .build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+        pool.setPoolName(name);
+        pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return pool;
+    }
+}
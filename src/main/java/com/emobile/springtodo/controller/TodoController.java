@@ -1,14 +1,39 @@
 package com.emobile.springtodo.controller;
 
+import com.emobile.springtodo.dto.request.BatchIdsRequestDTO;
+import com.emobile.springtodo.dto.request.CountMode;
+import com.emobile.springtodo.dto.request.ImportFormat;
+import com.emobile.springtodo.dto.request.TodoField;
+import com.emobile.springtodo.dto.request.TodoFilter;
 import com.emobile.springtodo.dto.request.TodoRequestDTO;
+import com.emobile.springtodo.dto.request.TodoView;
+import com.emobile.springtodo.dto.response.BatchCreateResponseDTO;
+import com.emobile.springtodo.dto.response.BatchOperationResponseDTO;
+import com.emobile.springtodo.dto.response.ChangesResponseDTO;
+import com.emobile.springtodo.dto.response.ImportResponseDTO;
 import com.emobile.springtodo.dto.response.PageResponse;
 import com.emobile.springtodo.dto.response.TodoResponseDTO;
+import com.emobile.springtodo.cache.TodoListVersion;
+import com.emobile.springtodo.events.TodoChangeBroadcaster;
+import com.emobile.springtodo.mapper.TodoMapper;
+import com.emobile.springtodo.service.TodoImportService;
 import com.emobile.springtodo.service.TodoService;
 import com.emobile.springtodo.swagger.TodoApi;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/todo")
@@ -17,27 +42,108 @@ public class TodoController implements TodoApi {
 
     private final TodoService todoService;
 
+    private final TodoImportService todoImportService;
+
+    private final TodoListVersion listVersion;
+
+    private final TodoChangeBroadcaster changeBroadcaster;
+
+    private final TodoMapper mapper;
+
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
     public TodoResponseDTO createTodo(@Valid @RequestBody TodoRequestDTO request) {
         return todoService.create(request);
     }
 
+    @PostMapping("/batch")
+    @ResponseStatus(HttpStatus.CREATED)
+    public BatchCreateResponseDTO createTodos(@RequestBody List<TodoRequestDTO> requests) {
+        return todoService.createAll(requests);
+    }
+
     @GetMapping
-    public PageResponse<TodoResponseDTO> getAllTodos(
+    public PageResponse<?> getAllTodos(
             @RequestParam(defaultValue = "1") int page,
+            @RequestParam(defaultValue = "10") int perPage,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "EXACT") CountMode count,
+            @RequestParam(defaultValue = "FULL") TodoView view,
+            @RequestParam(required = false) String fields,
+            TodoFilter filter,
+            WebRequest webRequest) {
+        Set<TodoField> selected = fields != null ? TodoField.parse(fields) : view.fields();
+        // Read once, before the page: it keys the cached page and tags the response, so a concurrent write
+        // can only make the tag older than the body, never newer.
+        String version = listVersion.current();
+        PageResponse<TodoResponseDTO> todos = cursor != null
+                ? todoService.getAllByCursor(cursor, perPage, filter, selected)
+                : todoService.getAll(version, page, perPage, count, filter, selected);
+        if (webRequest.checkNotModified(TodoEtags.etag(version, todos))) {
+            return null;
+        }
+        if (fields != null) {
+            return new PageResponse<>(todos.content().stream().map(todo -> TodoField.project(todo, selected)).toList(),
+                    todos.numberOfElements(), todos.nextCursor());
+        }
+        if (view == TodoView.SUMMARY) {
+            return new PageResponse<>(mapper.listTodoResponseToListTodoSummary(todos.content()),
+                    todos.numberOfElements(), todos.nextCursor());
+        }
+        return todos;
+    }
+
+    @GetMapping("/search")
+    public PageResponse<TodoResponseDTO> searchTodos(
+            @RequestParam String q,
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "10") int perPage) {
-        return todoService.getAll(page, perPage);
+        return todoService.search(q, cursor, perPage);
+    }
+
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_NDJSON_VALUE, ImportFormat.TEXT_CSV_VALUE})
+    public ImportResponseDTO importTodos(InputStream body,
+                                         @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType) throws IOException {
+        return todoImportService.importAll(body, ImportFormat.fromContentType(contentType));
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public StreamingResponseBody exportTodos(HttpServletResponse response) {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        return todoService::exportAll;
+    }
+
+    @GetMapping("/changes")
+    public ChangesResponseDTO getChanges(
+            @RequestParam(required = false) String since,
+            @RequestParam(defaultValue = "500") int limit) {
+        return todoService.getChanges(since, limit);
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamTodos() {
+        return changeBroadcaster.subscribe();
     }
 
     @GetMapping("/{id}")
-    public TodoResponseDTO getTodo(@PathVariable Long id) {
-        return todoService.getById(id);
+    public Object getTodo(@PathVariable Long id, @RequestParam(required = false) String fields,
+                          WebRequest webRequest) {
+        Set<TodoField> selected = fields != null ? TodoField.parse(fields) : TodoField.ALL;
+        // The whole todo is cached, so a single one is projected on the way out rather than in the query.
+        TodoResponseDTO todo = todoService.getById(id);
+        if (webRequest.checkNotModified(TodoEtags.etag(todo), TodoEtags.lastModified(todo))) {
+            return null;
+        }
+        return fields != null ? TodoField.project(todo, selected) : todo;
     }
 
     @PutMapping("/{id}")
-    public TodoResponseDTO updateTodo(@PathVariable Long id, @Valid @RequestBody TodoRequestDTO request) {
-        return todoService.update(id, request);
+    public TodoResponseDTO updateTodo(@PathVariable Long id, @Valid @RequestBody TodoRequestDTO request,
+                                      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                      HttpServletResponse response) {
+        TodoResponseDTO todo = todoService.update(id, request, TodoEtags.expectedUpdatedAt(id, ifMatch));
+        TodoEtags.writeValidators(response, todo);
+        return todo;
     }
 
     @DeleteMapping("/{id}")
@@ -47,7 +153,21 @@ public class TodoController implements TodoApi {
     }
 
     @PatchMapping("/{id}")
-    public TodoResponseDTO markAsCompleted(@PathVariable Long id) {
-        return todoService.markAsCompleted(id);
+    public TodoResponseDTO markAsCompleted(@PathVariable Long id,
+                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                           HttpServletResponse response) {
+        TodoResponseDTO todo = todoService.markAsCompleted(id, TodoEtags.expectedUpdatedAt(id, ifMatch));
+        TodoEtags.writeValidators(response, todo);
+        return todo;
+    }
+
+    @PatchMapping("/batch")
+    public BatchOperationResponseDTO markAllAsCompleted(@Valid @RequestBody BatchIdsRequestDTO request) {
+        return todoService.markAllAsCompleted(request.ids());
+    }
+
+    @DeleteMapping("/batch")
+    public BatchOperationResponseDTO deleteTodos(@Valid @RequestBody BatchIdsRequestDTO request) {
+        return todoService.deleteAll(request.ids());
     }
 }
@@ -0,0 +1,71 @@
+package com.emobile.springtodo.controller;
+
+import com.emobile.springtodo.dto.response.PageResponse;
+import com.emobile.springtodo.dto.response.TodoResponseDTO;
+import com.emobile.springtodo.exception.PreconditionFailedException;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+/**
+ * HTTP validators for todos. A todo's strong ETag is its id plus {@code updated_at} to the
+ * microsecond, which every write advances, so it can be checked against the cached DTO alone.
+ * A page's ETag combines the todos list version with the newest {@code updated_at} on the page.
+ */
+final class TodoEtags {
+
+    private static final String ANY = "*";
+
+    private TodoEtags() {
+    }
+
+    static String etag(TodoResponseDTO todo) {
+        return "\"" + todo.id() + "-" + micros(todo.updatedAt()) + "\"";
+    }
+
+    static long lastModified(TodoResponseDTO todo) {
+        return todo.updatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    static String etag(String listVersion, PageResponse<TodoResponseDTO> page) {
+        long newest = page.content().stream()
+                .mapToLong(todo -> micros(todo.updatedAt()))
+                .max()
+                .orElse(0);
+        return "\"v" + listVersion + "-" + newest + "\"";
+    }
+
+    static void writeValidators(HttpServletResponse response, TodoResponseDTO todo) {
+        response.setHeader(HttpHeaders.ETAG, etag(todo));
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified(todo));
+    }
+
+    /**
+     * Returns the {@code updated_at} a write must still find for the If-Match precondition to hold,
+     * or null when the write is unconditional. Tags that can never match fail immediately.
+     */
+    static LocalDateTime expectedUpdatedAt(Long id, String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ANY.equals(ifMatch.trim())) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        String prefix = "\"" + id + "-";
+        if (!tag.startsWith(prefix) || !tag.endsWith("\"") || tag.length() <= prefix.length() + 1) {
+            throw new PreconditionFailedException("Task " + id + " does not match " + tag);
+        }
+        try {
+            long micros = Long.parseLong(tag.substring(prefix.length(), tag.length() - 1));
+            return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                    (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+        } catch (NumberFormatException e) {
+            throw new PreconditionFailedException("Task " + id + " does not match " + tag);
+        }
+    }
+
+    private static long micros(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + time.getNano() / 1_000;
+    }
+}
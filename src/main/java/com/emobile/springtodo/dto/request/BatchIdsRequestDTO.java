@@ -0,0 +1,11 @@
+package com.emobile.springtodo.dto.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+public record BatchIdsRequestDTO(
+    @NotEmpty
+    List<@NotNull Long> ids){
+}
@@ -0,0 +1,7 @@
+package com.emobile.springtodo.dto.request;
+
+public enum CountMode {
+    EXACT,
+    ESTIMATED,
+    NONE
+}
@@ -0,0 +1,22 @@
+package com.emobile.springtodo.dto.request;
+
+import com.emobile.springtodo.exception.BadRequestException;
+import org.springframework.http.MediaType;
+
+public enum ImportFormat {
+    NDJSON,
+    CSV;
+
+    public static final String TEXT_CSV_VALUE = "text/csv";
+
+    public static ImportFormat fromContentType(String contentType) {
+        MediaType mediaType = MediaType.parseMediaType(contentType);
+        if (MediaType.APPLICATION_NDJSON.isCompatibleWith(mediaType)) {
+            return NDJSON;
+        }
+        if (MediaType.parseMediaType(TEXT_CSV_VALUE).isCompatibleWith(mediaType)) {
+            return CSV;
+        }
+        throw new BadRequestException("Unsupported import format " + contentType);
+    }
+}
@@ -0,0 +1,88 @@
+package com.emobile.springtodo.dto.request;
+
+import com.emobile.springtodo.dto.response.TodoResponseDTO;
+import com.emobile.springtodo.exception.BadRequestException;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * A todo property that can be asked for with {@code fields=}, together with the column it is read from.
+ */
+public enum TodoField {
+    ID("id", "id", TodoResponseDTO::id),
+    TITLE("title", "title", TodoResponseDTO::title),
+    DESCRIPTION("description", "description", TodoResponseDTO::description),
+    COMPLETED("completed", "completed", TodoResponseDTO::completed),
+    CREATED_AT("createdAt", "created_at", TodoResponseDTO::createdAt),
+    UPDATED_AT("updatedAt", "updated_at", TodoResponseDTO::updatedAt);
+
+    public static final Set<TodoField> ALL = Collections.unmodifiableSet(EnumSet.allOf(TodoField.class));
+
+    /** Always read, whatever was asked for: they order pages and make up cursors and ETags. */
+    public static final Set<TodoField> KEYS = Collections.unmodifiableSet(EnumSet.of(ID, CREATED_AT, UPDATED_AT));
+
+    private final String property;
+
+    private final String column;
+
+    private final Function<TodoResponseDTO, Object> accessor;
+
+    TodoField(String property, String column, Function<TodoResponseDTO, Object> accessor) {
+        this.property = property;
+        this.column = column;
+        this.accessor = accessor;
+    }
+
+    public String property() {
+        return property;
+    }
+
+    public String column() {
+        return column;
+    }
+
+    /**
+     * Parses a comma-separated list of property names, e.g. {@code id,title}.
+     */
+    public static Set<TodoField> parse(String fields) {
+        Set<TodoField> parsed = EnumSet.noneOf(TodoField.class);
+        for (String name : fields.split(",")) {
+            String property = name.trim();
+            TodoField field = null;
+            for (TodoField candidate : values()) {
+                if (candidate.property.equals(property)) {
+                    field = candidate;
+                    break;
+                }
+            }
+            if (field == null) {
+                throw new BadRequestException("Unknown field " + property + ", expected one of id, title, " +
+                        "description, completed, createdAt, updatedAt");
+            }
+            parsed.add(field);
+        }
+        return Collections.unmodifiableSet(parsed);
+    }
+
+    /**
+     * Returns the requested fields plus the {@link #KEYS}, which is what gets read from the database.
+     */
+    public static Set<TodoField> withKeys(Set<TodoField> fields) {
+        Set<TodoField> selected = EnumSet.copyOf(KEYS);
+        selected.addAll(fields);
+        return selected;
+    }
+
+    public static Map<String, Object> project(TodoResponseDTO todo, Set<TodoField> fields) {
+        Map<String, Object> projected = new LinkedHashMap<>();
+        for (TodoField field : fields) {
+            projected.put(field.property, field.accessor.apply(todo));
+        }
+        return projected;
+    }
+}
@@ -0,0 +1,19 @@
+package com.emobile.springtodo.dto.request;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+public record TodoFilter(
+        Boolean completed,
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdFrom,
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdTo,
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime updatedFrom,
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime updatedTo) {
+
+    public static final TodoFilter NONE = new TodoFilter(null, null, null, null, null);
+
+    public boolean isEmpty() {
+        return NONE.equals(this);
+    }
+}
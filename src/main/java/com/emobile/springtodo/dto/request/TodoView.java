@@ -0,0 +1,20 @@
+package com.emobile.springtodo.dto.request;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+public enum TodoView {
+    FULL(TodoField.ALL),
+    SUMMARY(Collections.unmodifiableSet(EnumSet.complementOf(EnumSet.of(TodoField.DESCRIPTION))));
+
+    private final Set<TodoField> fields;
+
+    TodoView(Set<TodoField> fields) {
+        this.fields = fields;
+    }
+
+    public Set<TodoField> fields() {
+        return fields;
+    }
+}
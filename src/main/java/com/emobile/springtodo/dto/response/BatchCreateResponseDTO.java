@@ -0,0 +1,7 @@
+package com.emobile.springtodo.dto.response;
+
+import java.util.List;
+
+public record BatchCreateResponseDTO(
+        List<Long> ids
+){}
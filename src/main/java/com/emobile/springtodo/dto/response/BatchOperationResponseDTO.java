@@ -0,0 +1,9 @@
+package com.emobile.springtodo.dto.response;
+
+import java.util.List;
+
+public record BatchOperationResponseDTO(
+        List<Long> processed,
+
+        List<Long> missing
+){}
@@ -0,0 +1,13 @@
+package com.emobile.springtodo.dto.response;
+
+import java.util.List;
+
+public record ChangesResponseDTO(
+        List<TodoResponseDTO> changed,
+
+        List<Long> deleted,
+
+        String nextToken,
+
+        boolean hasMore
+){}
@@ -0,0 +1,8 @@
+package com.emobile.springtodo.dto.response;
+
+public record ImportChunkDTO(
+        long firstLine,
+        long lastLine,
+        long accepted,
+        String error
+){}
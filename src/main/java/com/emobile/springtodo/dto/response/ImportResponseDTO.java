@@ -0,0 +1,11 @@
+package com.emobile.springtodo.dto.response;
+
+import java.util.List;
+import java.util.Map;
+
+public record ImportResponseDTO(
+        long accepted,
+        long rejected,
+        Map<Long, Map<String, String>> errors,
+        List<ImportChunkDTO> chunks
+){}
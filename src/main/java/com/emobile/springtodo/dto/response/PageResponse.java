@@ -1,9 +1,18 @@
 package com.emobile.springtodo.dto.response;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.util.List;
 
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public record PageResponse<T> (
         List<T> content,
 
-        Long numberOfElements
-){}
+        Long numberOfElements,
+
+        String nextCursor
+){
+    public PageResponse(List<T> content, Long numberOfElements) {
+        this(content, numberOfElements, null);
+    }
+}
@@ -0,0 +1,11 @@
+package com.emobile.springtodo.dto.response;
+
+import java.time.LocalDateTime;
+
+public record TodoSummaryDTO (
+    Long id,
+    String title,
+    boolean completed,
+    LocalDateTime createdAt,
+    LocalDateTime updatedAt){
+}
@@ -0,0 +1,11 @@
+package com.emobile.springtodo.entity;
+
+/**
+ * A todo as of its latest change, or a tombstone when {@code todo} is null.
+ */
+public record TodoChange(long changeXid, long id, TodoEntity todo) {
+
+    public boolean isDeleted() {
+        return todo == null;
+    }
+}
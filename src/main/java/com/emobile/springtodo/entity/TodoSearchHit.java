@@ -0,0 +1,4 @@
+package com.emobile.springtodo.entity;
+
+public record TodoSearchHit(TodoEntity todo, float rank) {
+}
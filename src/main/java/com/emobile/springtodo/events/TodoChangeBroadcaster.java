@@ -0,0 +1,154 @@
+package com.emobile.springtodo.events;
+
+import com.emobile.springtodo.exception.ServiceUnavailableException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Fans change events out to Server-Sent Events subscribers. Each event is serialized once and queued
+ * per subscriber; a subscriber whose queue fills up is disconnected rather than allowed to hold memory
+ * or stall the others, and is expected to reconnect and reload.
+ */
+@Slf4j
+@Component
+public class TodoChangeBroadcaster implements DisposableBean {
+
+    private static final Set<DataWithMediaType> HEARTBEAT = SseEmitter.event().comment("heartbeat").build();
+
+    private final ObjectMapper objectMapper;
+
+    private final int maxSubscribers;
+
+    private final int queueCapacity;
+
+    private final Duration timeout;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    private final Counter published;
+
+    private final Counter dropped;
+
+    public TodoChangeBroadcaster(ObjectMapper objectMapper,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${todo.stream.max-subscribers:1000}") int maxSubscribers,
+                                 @Value("${todo.stream.queue-capacity:256}") int queueCapacity,
+                                 @Value("${todo.stream.timeout:30m}") Duration timeout) {
+        this.objectMapper = objectMapper;
+        this.maxSubscribers = maxSubscribers;
+        this.queueCapacity = queueCapacity;
+        this.timeout = timeout;
+        this.published = Counter.builder("todo.stream.events")
+                .description("Change events published to stream subscribers")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("todo.stream.dropped")
+                .description("Stream subscribers disconnected for falling behind")
+                .register(meterRegistry);
+        Gauge.builder("todo.stream.subscribers", subscribers, Set::size)
+                .description("Open change stream subscriptions")
+                .register(meterRegistry);
+    }
+
+    public SseEmitter subscribe() {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new ServiceUnavailableException("Too many change stream subscribers, retry later");
+        }
+        Subscriber subscriber = new Subscriber();
+        subscriber.emitter.onCompletion(() -> remove(subscriber));
+        subscriber.emitter.onTimeout(() -> remove(subscriber));
+        subscriber.emitter.onError(e -> remove(subscriber));
+        subscribers.add(subscriber);
+        subscriber.start();
+        return subscriber.emitter;
+    }
+
+    public void publish(TodoChangeEvent event) {
+        Set<DataWithMediaType> message;
+        try {
+            message = SseEmitter.event()
+                    .data(objectMapper.writeValueAsString(event), MediaType.APPLICATION_JSON)
+                    .build();
+        } catch (JsonProcessingException e) {
+            log.warn("Failed to serialize change event for todo {}: {}", event.id(), e.getMessage());
+            return;
+        }
+        published.increment();
+        offer(message);
+    }
+
+    public void heartbeat() {
+        offer(HEARTBEAT);
+    }
+
+    @Override
+    public void destroy() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    private void offer(Set<DataWithMediaType> message) {
+        for (Subscriber subscriber : subscribers) {
+            if (!subscriber.queue.offer(message)) {
+                dropped.increment();
+                remove(subscriber);
+                subscriber.emitter.complete();
+            }
+        }
+    }
+
+    private void remove(Subscriber subscriber) {
+        if (subscribers.remove(subscriber)) {
+            subscriber.stop();
+        }
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter = new SseEmitter(timeout.toMillis());
+
+        private final BlockingQueue<Set<DataWithMediaType>> queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        private volatile Thread sender;
+
+        void start() {
+            sender = Thread.ofVirtual().name("todo-stream-sender").start(this::send);
+        }
+
+        void stop() {
+            queue.clear();
+            Thread current = sender;
+            if (current != null) {
+                current.interrupt();
+            }
+        }
+
+        private void send() {
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    emitter.send(queue.take());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException | IllegalStateException e) {
+                // The client went away or the emitter was completed under us.
+                remove(this);
+            }
+        }
+    }
+}
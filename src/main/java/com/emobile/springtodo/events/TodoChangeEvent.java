@@ -0,0 +1,19 @@
+package com.emobile.springtodo.events;
+
+import com.emobile.springtodo.dto.response.TodoResponseDTO;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * A committed change to the todos table as announced by the notify triggers. {@code todo} is absent for
+ * deletes and for rows too large for a notification payload; {@code RESYNC} carries neither id nor todo
+ * and tells clients to reload because individual changes were not announced.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record TodoChangeEvent(Type type, Long id, TodoResponseDTO todo) {
+
+    public static final TodoChangeEvent RESYNC = new TodoChangeEvent(Type.RESYNC, null, null);
+
+    public enum Type {
+        CREATED, UPDATED, COMPLETED, DELETED, RESYNC
+    }
+}
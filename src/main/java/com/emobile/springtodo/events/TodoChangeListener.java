@@ -0,0 +1,161 @@
+package com.emobile.springtodo.events;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+/**
+ * Holds the node's single {@code LISTEN} connection for the notify triggers and hands every change to
+ * the broadcaster. The connection is opened outside the pool so it neither takes a pooled connection
+ * for good nor counts against the database gate, and it always goes to the primary, even when reads
+ * are routed to replicas. Changes committed while it is reconnecting are lost, so subscribers are
+ * told to resync once it is back.
+ */
+@Slf4j
+@Component
+public class TodoChangeListener implements SmartLifecycle {
+
+    public static final String CHANNEL = "todo_changes";
+
+    private final DataSourceProperties dataSourceProperties;
+
+    private final TodoChangeBroadcaster broadcaster;
+
+    private final ObjectMapper objectMapper;
+
+    private final boolean enabled;
+
+    private final Duration heartbeatInterval;
+
+    private final Duration retryInterval;
+
+    private volatile boolean running;
+
+    private volatile Thread worker;
+
+    private Connection connection;
+
+    public TodoChangeListener(DataSourceProperties dataSourceProperties,
+                              TodoChangeBroadcaster broadcaster,
+                              ObjectMapper objectMapper,
+                              @Value("${todo.stream.enabled:true}") boolean enabled,
+                              @Value("${todo.stream.heartbeat-interval:15s}") Duration heartbeatInterval,
+                              @Value("${todo.stream.retry-interval:5s}") Duration retryInterval) {
+        this.dataSourceProperties = dataSourceProperties;
+        this.broadcaster = broadcaster;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.heartbeatInterval = heartbeatInterval;
+        this.retryInterval = retryInterval;
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        // Listen before start() returns so nothing committed after startup is missed.
+        try {
+            connection = connect();
+        } catch (SQLException e) {
+            log.warn("Failed to listen on {}, retrying in {}: {}", CHANNEL, retryInterval, e.getMessage());
+        }
+        worker = Thread.ofPlatform().name("todo-change-listener").daemon(true).start(this::listen);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        Thread current = worker;
+        if (current != null) {
+            worker = null;
+            current.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void listen() {
+        while (running) {
+            try {
+                if (connection == null) {
+                    connection = connect();
+                    broadcaster.publish(TodoChangeEvent.RESYNC);
+                }
+                PGNotification[] notifications = connection.unwrap(PGConnection.class)
+                        .getNotifications((int) heartbeatInterval.toMillis());
+                if (notifications == null || notifications.length == 0) {
+                    // Idle: make sure the connection is still alive and keep proxies from closing the streams.
+                    if (!connection.isValid((int) retryInterval.toSeconds())) {
+                        throw new SQLException("Listen connection is no longer valid");
+                    }
+                    broadcaster.heartbeat();
+                    continue;
+                }
+                for (PGNotification notification : notifications) {
+                    dispatch(notification.getParameter());
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    break;
+                }
+                log.warn("Lost listen connection on {}, reconnecting in {}: {}", CHANNEL, retryInterval, e.getMessage());
+                close();
+                try {
+                    Thread.sleep(retryInterval);
+                } catch (InterruptedException interrupted) {
+                    break;
+                }
+            }
+        }
+        close();
+    }
+
+    private void dispatch(String payload) {
+        try {
+            broadcaster.publish(objectMapper.readValue(payload, TodoChangeEvent.class));
+        } catch (JsonProcessingException e) {
+            log.warn("Ignoring malformed change notification: {}", e.getMessage());
+        }
+    }
+
+    private Connection connect() throws SQLException {
+        Connection listening = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword());
+        try (Statement statement = listening.createStatement()) {
+            statement.execute("LISTEN " + CHANNEL);
+        } catch (SQLException e) {
+            listening.close();
+            throw e;
+        }
+        log.info("Listening for todo changes on {}", CHANNEL);
+        return listening;
+    }
+
+    private void close() {
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                log.debug("Failed to close listen connection: {}", e.getMessage());
+            }
+            connection = null;
+        }
+    }
+}
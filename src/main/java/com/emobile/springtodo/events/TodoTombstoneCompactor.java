@@ -0,0 +1,78 @@
+package com.emobile.springtodo.events;
+
+import com.emobile.springtodo.repository.TodoRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically drops tombstones older than the retention. Change tokens from before the newest dropped
+ * tombstone are answered with 410 Gone, so clients offline for longer than the retention sync from scratch.
+ */
+@Slf4j
+@Component
+public class TodoTombstoneCompactor implements SmartLifecycle {
+
+    private final TodoRepository repository;
+
+    private final Duration retention;
+
+    private final Duration interval;
+
+    private volatile ScheduledExecutorService executor;
+
+    public TodoTombstoneCompactor(TodoRepository repository,
+                                  @Value("${todo.changes.tombstone-retention:30d}") Duration retention,
+                                  @Value("${todo.changes.compaction-interval:1h}") Duration interval) {
+        this.repository = repository;
+        this.retention = retention;
+        this.interval = interval;
+    }
+
+    public int compact() {
+        int purged = repository.purgeTombstones(LocalDateTime.now().minus(retention));
+        if (purged > 0) {
+            log.info("Compacted {} tombstones older than {}", purged, retention);
+        }
+        return purged;
+    }
+
+    @Override
+    public void start() {
+        executor = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+                .name("todo-tombstone-compactor")
+                .daemon(true)
+                .factory());
+        long intervalMillis = interval.toMillis();
+        executor.scheduleWithFixedDelay(this::scheduledCompact, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        ScheduledExecutorService current = executor;
+        if (current != null) {
+            executor = null;
+            current.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return executor != null;
+    }
+
+    private void scheduledCompact() {
+        try {
+            compact();
+        } catch (RuntimeException e) {
+            log.warn("Failed to compact tombstones: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.emobile.springtodo.exception;
+
+import lombok.Getter;
+
+import java.util.Map;
+
+@Getter
+public class BatchValidationException extends RuntimeException {
+
+    private final Map<Integer, Map<String, String>> errors;
+
+    public BatchValidationException(Map<Integer, Map<String, String>> errors) {
+        super("Batch validation failed for items " + errors.keySet());
+        this.errors = errors;
+    }
+}
@@ -1,16 +1,21 @@
 package com.emobile.springtodo.exception;
 
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
-import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 
-@ControllerAdvice
+@RestControllerAdvice
 @Slf4j
 public class GlobalExceptionHandler {
 
@@ -25,6 +30,13 @@ public class GlobalExceptionHandler {
         return Map.of("errors", errors);
     }
 
+    @ExceptionHandler(BatchValidationException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public Map<String, Object> handleBatchValidationErrors(BatchValidationException ex) {
+        log.warn("Batch validation failed: {}", ex.getErrors());
+        return Map.of("errors", ex.getErrors());
+    }
+
     @ExceptionHandler(CustomException.class)
     @ResponseStatus(HttpStatus.NOT_FOUND)
     public String handleNotFound(CustomException ex) {
@@ -32,9 +44,64 @@ public class GlobalExceptionHandler {
         return HttpStatus.NOT_FOUND + ex.getMessage();
     }
 
+    @ExceptionHandler(BadRequestException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public String handleBadRequest(BadRequestException ex) {
+        log.warn("Bad request: {}", ex.getMessage());
+        return HttpStatus.BAD_REQUEST + ex.getMessage();
+    }
+
+    @ExceptionHandler(PreconditionFailedException.class)
+    @ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+    public String handlePreconditionFailed(PreconditionFailedException ex) {
+        log.warn("Precondition failed: {}", ex.getMessage());
+        return HttpStatus.PRECONDITION_FAILED + ex.getMessage();
+    }
+
+    @ExceptionHandler(GoneException.class)
+    @ResponseStatus(HttpStatus.GONE)
+    public String handleGone(GoneException ex) {
+        log.warn("Gone: {}", ex.getMessage());
+        return HttpStatus.GONE + ex.getMessage();
+    }
+
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public String handleTypeMismatch(MethodArgumentTypeMismatchException ex) {
+        log.warn("Invalid value for parameter {}: {}", ex.getName(), ex.getValue());
+        return HttpStatus.BAD_REQUEST + "Invalid value for parameter " + ex.getName();
+    }
+
+    @ExceptionHandler(TooManyRequestsException.class)
+    @ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+    public String handleTooManyRequests(TooManyRequestsException ex, HttpServletResponse response) {
+        log.debug("Too many requests: {}", ex.getMessage());
+        setRetryAfter(response, ex.getRetryAfter());
+        return HttpStatus.TOO_MANY_REQUESTS + "Rate limit exceeded, retry later";
+    }
+
+    @ExceptionHandler({ServiceUnavailableException.class, CannotCreateTransactionException.class})
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public String handleServiceUnavailable(RuntimeException ex, HttpServletResponse response) {
+        log.warn("Service unavailable: {}", ex.getMessage());
+        if (ex instanceof ServiceUnavailableException unavailable) {
+            setRetryAfter(response, unavailable.getRetryAfter());
+        }
+        return HttpStatus.SERVICE_UNAVAILABLE + "Service is overloaded, retry later";
+    }
+
     @ExceptionHandler(Exception.class)
+    @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     public String handleGenericException(Exception ex) {
         log.error("Unexpected error", ex);
         return HttpStatus.INTERNAL_SERVER_ERROR + "Something went wrong";
     }
+
+    private static void setRetryAfter(HttpServletResponse response, Duration retryAfter) {
+        if (retryAfter != null) {
+            // Whole seconds, rounded up so a client retrying on time finds a token.
+            long seconds = Math.max(1, (retryAfter.toMillis() + 999) / 1000);
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(seconds));
+        }
+    }
 }
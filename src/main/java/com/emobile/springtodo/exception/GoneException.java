@@ -0,0 +1,8 @@
+package com.emobile.springtodo.exception;
+
+public class GoneException extends RuntimeException {
+
+    public GoneException(String message) {
+        super(message);
+    }
+}
@@ -2,6 +2,7 @@ package com.emobile.springtodo.mapper;
 
 import com.emobile.springtodo.dto.request.TodoRequestDTO;
 import com.emobile.springtodo.dto.response.TodoResponseDTO;
+import com.emobile.springtodo.dto.response.TodoSummaryDTO;
 import com.emobile.springtodo.entity.TodoEntity;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
@@ -20,4 +21,8 @@ public interface TodoMapper {
     TodoResponseDTO entityToResponse(TodoEntity entity);
 
     List<TodoResponseDTO> listTodoEntityToListTodoResponse(List<TodoEntity> entityList);
+
+    TodoSummaryDTO responseToSummary(TodoResponseDTO response);
+
+    List<TodoSummaryDTO> listTodoResponseToListTodoSummary(List<TodoResponseDTO> responseList);
 }
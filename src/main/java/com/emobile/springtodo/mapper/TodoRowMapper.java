@@ -1,11 +1,13 @@
 package com.emobile.springtodo.mapper;
 
+import com.emobile.springtodo.dto.request.TodoField;
 import com.emobile.springtodo.entity.TodoEntity;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Component;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Set;
 
 @Component
 public class TodoRowMapper implements RowMapper<TodoEntity> {
@@ -21,4 +23,29 @@ public class TodoRowMapper implements RowMapper<TodoEntity> {
         todo.setUpdatedAt(rs.getTimestamp("updated_at").toLocalDateTime());
         return todo;
     }
+
+    /**
+     * Maps rows that carry only the given columns plus the {@link TodoField#KEYS}; the rest stay unset.
+     */
+    public RowMapper<TodoEntity> forFields(Set<TodoField> fields) {
+        if (fields.containsAll(TodoField.ALL)) {
+            return this;
+        }
+        return (rs, rowNum) -> {
+            TodoEntity todo = new TodoEntity();
+            todo.setId(rs.getLong("id"));
+            if (fields.contains(TodoField.TITLE)) {
+                todo.setTitle(rs.getString("title"));
+            }
+            if (fields.contains(TodoField.DESCRIPTION)) {
+                todo.setDescription(rs.getString("description"));
+            }
+            if (fields.contains(TodoField.COMPLETED)) {
+                todo.setCompleted(rs.getBoolean("completed"));
+            }
+            todo.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
+            todo.setUpdatedAt(rs.getTimestamp("updated_at").toLocalDateTime());
+            return todo;
+        };
+    }
 }
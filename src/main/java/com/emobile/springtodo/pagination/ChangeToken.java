@@ -0,0 +1,42 @@
+package com.emobile.springtodo.pagination;
+
+import com.emobile.springtodo.entity.TodoChange;
+import com.emobile.springtodo.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position in the change log: everything up to and including the change of todo {@code id} made by
+ * transaction {@code xid} has been seen.
+ */
+public record ChangeToken(long xid, long id) {
+
+    public static final ChangeToken START = new ChangeToken(0, 0);
+
+    private static final String SEPARATOR = "|";
+
+    public static ChangeToken of(TodoChange change) {
+        return new ChangeToken(change.changeXid(), change.id());
+    }
+
+    public String encode() {
+        String raw = xid + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ChangeToken decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new BadRequestException("Invalid change token " + token);
+            }
+            return new ChangeToken(
+                    Long.parseLong(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid change token " + token);
+        }
+    }
+}
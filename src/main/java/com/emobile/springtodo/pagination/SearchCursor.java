@@ -0,0 +1,36 @@
+package com.emobile.springtodo.pagination;
+
+import com.emobile.springtodo.entity.TodoSearchHit;
+import com.emobile.springtodo.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+public record SearchCursor(float rank, Long id) {
+
+    private static final String SEPARATOR = "|";
+
+    public static SearchCursor of(TodoSearchHit hit) {
+        return new SearchCursor(hit.rank(), hit.todo().getId());
+    }
+
+    public String encode() {
+        String raw = rank + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static SearchCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new BadRequestException("Invalid cursor " + token);
+            }
+            return new SearchCursor(
+                    Float.parseFloat(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor " + token);
+        }
+    }
+}
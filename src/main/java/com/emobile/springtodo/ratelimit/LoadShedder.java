@@ -0,0 +1,59 @@
+package com.emobile.springtodo.ratelimit;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Tells when the connection pools are saturated, judged by the threads already queued for a
+ * connection in any Hikari pool. Requests arriving then are turned away instead of joining the queue.
+ */
+public class LoadShedder {
+
+    private static final String PENDING_GAUGE = "hikaricp.connections.pending";
+
+    private static final long LOOKUP_INTERVAL_NANOS = Duration.ofSeconds(5).toNanos();
+
+    private final MeterRegistry meterRegistry;
+
+    private final int maxPending;
+
+    private final Duration retryAfter;
+
+    private volatile Collection<Gauge> pending = List.of();
+
+    private volatile long lookedUpAt;
+
+    public LoadShedder(MeterRegistry meterRegistry, int maxPending, Duration retryAfter) {
+        this.meterRegistry = meterRegistry;
+        this.maxPending = maxPending;
+        this.retryAfter = retryAfter;
+        this.lookedUpAt = System.nanoTime() - LOOKUP_INTERVAL_NANOS;
+    }
+
+    public boolean isOverloaded() {
+        for (Gauge gauge : gauges()) {
+            if (gauge.value() >= maxPending) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public Duration retryAfter() {
+        return retryAfter;
+    }
+
+    private Collection<Gauge> gauges() {
+        // Pools register their gauges when they start, replica pools possibly after this bean.
+        long now = System.nanoTime();
+        if (now - lookedUpAt >= LOOKUP_INTERVAL_NANOS) {
+            lookedUpAt = now;
+            pending = List.copyOf(meterRegistry.find(PENDING_GAUGE).gauges());
+        }
+        return pending;
+    }
+}
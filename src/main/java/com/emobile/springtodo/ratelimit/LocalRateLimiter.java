@@ -0,0 +1,37 @@
+package com.emobile.springtodo.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Buckets held in this node's memory. Idle buckets are dropped, which is harmless since an idle
+ * bucket has refilled anyway, and the number of buckets is capped so made-up client ids cannot
+ * grow the map without bound.
+ */
+public class LocalRateLimiter implements RateLimiter {
+
+    private final Cache<String, TokenBucket> buckets;
+
+    private final LongSupplier nanoClock;
+
+    public LocalRateLimiter(long maxClients, Duration idleTimeout) {
+        this(maxClients, idleTimeout, System::nanoTime);
+    }
+
+    LocalRateLimiter(long maxClients, Duration idleTimeout, LongSupplier nanoClock) {
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxClients)
+                .expireAfterAccess(idleTimeout)
+                .build();
+        this.nanoClock = nanoClock;
+    }
+
+    @Override
+    public long tryAcquire(String key, RateLimit limit) {
+        long now = nanoClock.getAsLong();
+        return buckets.get(key, ignored -> new TokenBucket(limit, now)).tryTake(now);
+    }
+}
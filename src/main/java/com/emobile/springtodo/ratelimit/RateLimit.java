@@ -0,0 +1,8 @@
+package com.emobile.springtodo.ratelimit;
+
+/**
+ * A token bucket budget: up to {@code capacity} requests in a burst, refilled at
+ * {@code refillPerSecond} tokens per second.
+ */
+public record RateLimit(int capacity, double refillPerSecond) {
+}
@@ -0,0 +1,99 @@
+package com.emobile.springtodo.ratelimit;
+
+import com.emobile.springtodo.exception.ServiceUnavailableException;
+import com.emobile.springtodo.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Admits a request to the todo API only if the pools are not saturated and the client has a token
+ * left in its read or write bucket. Runs after handler mapping, so rejections are counted by route
+ * template rather than by raw path.
+ */
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    private static final Set<String> READ_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+
+    private final RateLimiter rateLimiter;
+
+    private final RateLimit readLimit;
+
+    private final RateLimit writeLimit;
+
+    private final String clientHeader;
+
+    private final LoadShedder loadShedder;
+
+    private final MeterRegistry meterRegistry;
+
+    private final ConcurrentMap<String, Counter> rejections = new ConcurrentHashMap<>();
+
+    /**
+     * @param clientHeader header naming the client, set by a trusted gateway; blank to key clients by address
+     * @param loadShedder  null to never shed
+     */
+    public RateLimitInterceptor(RateLimiter rateLimiter, RateLimit readLimit, RateLimit writeLimit,
+                                String clientHeader, LoadShedder loadShedder, MeterRegistry meterRegistry) {
+        this.rateLimiter = rateLimiter;
+        this.readLimit = readLimit;
+        this.writeLimit = writeLimit;
+        this.clientHeader = clientHeader;
+        this.loadShedder = loadShedder;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod)) {
+            return true;
+        }
+        if (loadShedder != null && loadShedder.isOverloaded()) {
+            reject(request, "overload");
+            throw new ServiceUnavailableException("Connection pools are saturated", loadShedder.retryAfter());
+        }
+        boolean read = READ_METHODS.contains(request.getMethod());
+        String client = client(request);
+        long waitMillis = read
+                ? rateLimiter.tryAcquire("read:" + client, readLimit)
+                : rateLimiter.tryAcquire("write:" + client, writeLimit);
+        if (waitMillis > 0) {
+            reject(request, read ? "read-limit" : "write-limit");
+            throw new TooManyRequestsException("Client " + client + " is over its " + (read ? "read" : "write") +
+                    " budget", Duration.ofMillis(waitMillis));
+        }
+        return true;
+    }
+
+    private String client(HttpServletRequest request) {
+        if (!clientHeader.isBlank()) {
+            String client = request.getHeader(clientHeader);
+            if (client != null && !client.isBlank()) {
+                return client;
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    private void reject(HttpServletRequest request, String reason) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String route = pattern != null ? pattern.toString() : "unknown";
+        String method = request.getMethod();
+        rejections.computeIfAbsent(method + ' ' + route + ' ' + reason, key -> Counter.builder("todo.ratelimit.rejected")
+                        .description("Requests turned away before reaching the controller")
+                        .tag("method", method)
+                        .tag("route", route)
+                        .tag("reason", reason)
+                        .register(meterRegistry))
+                .increment();
+    }
+}
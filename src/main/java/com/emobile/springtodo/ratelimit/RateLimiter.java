@@ -0,0 +1,10 @@
+package com.emobile.springtodo.ratelimit;
+
+public interface RateLimiter {
+
+    /**
+     * Takes a token from the bucket under {@code key}. Returns 0 when the request may go ahead,
+     * otherwise the milliseconds until a token becomes available.
+     */
+    long tryAcquire(String key, RateLimit limit);
+}
@@ -0,0 +1,59 @@
+package com.emobile.springtodo.ratelimit;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.List;
+
+/**
+ * Buckets shared by the whole cluster, refilled and drawn from atomically in a Lua script on the
+ * Redis clock. When Redis cannot be reached the node falls back to its local buckets rather than
+ * letting everything through or rejecting everything.
+ */
+@Slf4j
+public class RedisRateLimiter implements RateLimiter {
+
+    private static final String KEY_PREFIX = "todo:ratelimit:";
+
+    private static final RedisScript<Long> TAKE_TOKEN = RedisScript.of("""
+            local capacity = tonumber(ARGV[1])
+            local perMillis = tonumber(ARGV[2])
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+            local state = redis.call('HMGET', KEYS[1], 'tokens', 'at')
+            local tokens = tonumber(state[1]) or capacity
+            local at = tonumber(state[2]) or now
+            tokens = math.min(capacity, tokens + math.max(0, now - at) * perMillis)
+            local wait = 0
+            if tokens >= 1 then
+                tokens = tokens - 1
+            else
+                wait = math.ceil((1 - tokens) / perMillis)
+            end
+            redis.call('HSET', KEYS[1], 'tokens', tostring(tokens), 'at', now)
+            redis.call('PEXPIRE', KEYS[1], math.ceil(capacity / perMillis) + 1000)
+            return wait
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final RateLimiter fallback;
+
+    public RedisRateLimiter(StringRedisTemplate redisTemplate, RateLimiter fallback) {
+        this.redisTemplate = redisTemplate;
+        this.fallback = fallback;
+    }
+
+    @Override
+    public long tryAcquire(String key, RateLimit limit) {
+        try {
+            Long wait = redisTemplate.execute(TAKE_TOKEN, List.of(KEY_PREFIX + key),
+                    Integer.toString(limit.capacity()), Double.toString(limit.refillPerSecond() / 1000));
+            return wait != null ? wait : 0;
+        } catch (RuntimeException e) {
+            log.debug("Rate limit check in Redis failed, using local buckets: {}", e.getMessage());
+            return fallback.tryAcquire(key, limit);
+        }
+    }
+}
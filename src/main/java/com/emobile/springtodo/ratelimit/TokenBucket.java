@@ -0,0 +1,26 @@
+package com.emobile.springtodo.ratelimit;
+
+final class TokenBucket {
+
+    private final RateLimit limit;
+
+    private double tokens;
+
+    private long refilledAt;
+
+    TokenBucket(RateLimit limit, long nowNanos) {
+        this.limit = limit;
+        this.tokens = limit.capacity();
+        this.refilledAt = nowNanos;
+    }
+
+    synchronized long tryTake(long nowNanos) {
+        tokens = Math.min(limit.capacity(), tokens + (nowNanos - refilledAt) * limit.refillPerSecond() / 1e9);
+        refilledAt = nowNanos;
+        if (tokens >= 1) {
+            tokens -= 1;
+            return 0;
+        }
+        return (long) Math.ceil((1 - tokens) * 1000 / limit.refillPerSecond());
+    }
+}
@@ -1,16 +1,48 @@
 package com.emobile.springtodo.repository;
 
+import com.emobile.springtodo.dto.request.TodoField;
+import com.emobile.springtodo.dto.request.TodoFilter;
+import com.emobile.springtodo.entity.TodoChange;
 import com.emobile.springtodo.entity.TodoEntity;
-import org.springframework.data.domain.Page;
+import com.emobile.springtodo.entity.TodoSearchHit;
+import com.emobile.springtodo.pagination.ChangeToken;
+import com.emobile.springtodo.pagination.SearchCursor;
+import com.emobile.springtodo.pagination.TodoCursor;
+import com.emobile.springtodo.writebehind.PendingWrite;
 import org.springframework.data.domain.Pageable;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
 
 public interface TodoRepository {
     void save(TodoEntity entity);
+    void saveAll(List<TodoEntity> entities);
+    long copyAll(List<TodoEntity> entities);
+    List<Long> findIdsWrittenInCurrentTransaction();
     Optional<TodoEntity> findById(Long id);
-    Page<TodoEntity> findAll(Pageable pageable);
-    void update(TodoEntity entity);
-    void deleteById(Long id);
+    List<TodoEntity> findAll(TodoFilter filter, Pageable pageable, Set<TodoField> fields);
+    List<TodoEntity> findAllAfter(TodoFilter filter, TodoCursor cursor, int limit, Set<TodoField> fields);
+    List<TodoSearchHit> search(String query, SearchCursor cursor, int limit);
+    long changeHorizon();
+    List<TodoChange> findChangesAfter(ChangeToken after, long horizon, int limit);
+    long changeTokenFloor();
+    int purgeTombstones(LocalDateTime deletedBefore);
+    void streamAll(Consumer<TodoEntity> action);
+    void streamIds(LongConsumer action);
+    Optional<TodoEntity> updateDetails(Long id, String title, String description, LocalDateTime updatedAt,
+                                      LocalDateTime expectedUpdatedAt);
+    Optional<TodoEntity> markAsCompleted(Long id, LocalDateTime updatedAt, LocalDateTime expectedUpdatedAt);
+    List<TodoEntity> markAllAsCompleted(List<Long> ids, LocalDateTime updatedAt);
+    void applyWrites(List<PendingWrite> writes);
+    boolean deleteById(Long id);
+    List<Long> deleteAllById(List<Long> ids);
     boolean existsById(Long id);
+    long count();
+    long estimateCount();
+    long count(TodoFilter filter);
+    long estimateCount(TodoFilter filter);
 }
@@ -1,31 +1,74 @@
 package com.emobile.springtodo.repository;
 
+import com.emobile.springtodo.dto.request.TodoField;
+import com.emobile.springtodo.dto.request.TodoFilter;
+import com.emobile.springtodo.entity.TodoChange;
 import com.emobile.springtodo.entity.TodoEntity;
+import com.emobile.springtodo.entity.TodoSearchHit;
 import com.emobile.springtodo.mapper.TodoRowMapper;
+import com.emobile.springtodo.pagination.ChangeToken;
+import com.emobile.springtodo.pagination.SearchCursor;
+import com.emobile.springtodo.pagination.TodoCursor;
+import com.emobile.springtodo.writebehind.PendingWrite;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Pageable;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
 
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 @Repository
 @RequiredArgsConstructor
+@Timed("todo.repository")
 public class TodoRepositoryImpl implements TodoRepository{
 
+    private static final String COLUMNS = "id, title, description, completed, created_at, updated_at";
+
+    private static final Pattern PLAN_ROWS = Pattern.compile("\"Plan Rows\":\\s*(\\d+)");
+
     private final JdbcTemplate jdbcTemplate;
 
     private final TodoRowMapper rowMapper;
 
+    @Value("${todo.batch.size:500}")
+    private int batchSize;
+
+    @Value("${todo.export.fetch-size:1000}")
+    private int exportFetchSize;
+
     @Override
     public void save(TodoEntity todo) {
         todo.setDescription(todo.getDescription() != null ? todo.getDescription() : "");
-        todo.setCreatedAt(LocalDateTime.now());
-        todo.setUpdatedAt(LocalDateTime.now());
+        // Truncated to the column's precision so the returned entity matches what a later read sees.
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        todo.setCreatedAt(now);
+        todo.setUpdatedAt(now);
         String sql = "INSERT INTO todos (title, description, completed, created_at, updated_at) " +
                 "VALUES (?, ?, ?, ?, ?) RETURNING id";
 
@@ -42,42 +85,258 @@ public class TodoRepositoryImpl implements TodoRepository{
         todo.setId(generatedId);
     }
 
+    @Override
+    public void saveAll(List<TodoEntity> entities) {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        String sql = "INSERT INTO todos (title, description, completed, created_at, updated_at) " +
+                "VALUES (?, ?, ?, ?, ?)";
+
+        for (int from = 0; from < entities.size(); from += batchSize) {
+            List<TodoEntity> batch = entities.subList(from, Math.min(from + batchSize, entities.size()));
+            KeyHolder keyHolder = new GeneratedKeyHolder();
+
+            jdbcTemplate.batchUpdate(
+                    con -> con.prepareStatement(sql, new String[]{"id"}),
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            TodoEntity todo = batch.get(i);
+                            todo.setDescription(todo.getDescription() != null ? todo.getDescription() : "");
+                            todo.setCreatedAt(now);
+                            todo.setUpdatedAt(now);
+                            ps.setString(1, todo.getTitle());
+                            ps.setString(2, todo.getDescription());
+                            ps.setBoolean(3, todo.isCompleted());
+                            ps.setObject(4, todo.getCreatedAt());
+                            ps.setObject(5, todo.getUpdatedAt());
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return batch.size();
+                        }
+                    },
+                    keyHolder);
+
+            List<Map<String, Object>> keys = keyHolder.getKeyList();
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).setId(((Number) keys.get(i).get("id")).longValue());
+            }
+        }
+    }
+
+    @Override
+    public long copyAll(List<TodoEntity> entities) {
+        String sql = "COPY todos (title, description, completed, created_at, updated_at) FROM STDIN WITH (FORMAT csv)";
+        StringBuilder csv = new StringBuilder(entities.size() * 128);
+        for (TodoEntity todo : entities) {
+            appendCsv(csv, todo.getTitle()).append(',');
+            appendCsv(csv, todo.getDescription() != null ? todo.getDescription() : "").append(',');
+            csv.append(todo.isCompleted()).append(',')
+                    .append(todo.getCreatedAt()).append(',')
+                    .append(todo.getUpdatedAt()).append('\n');
+        }
+        return jdbcTemplate.execute((ConnectionCallback<Long>) con -> {
+            CopyManager copyManager = con.unwrap(PGConnection.class).getCopyAPI();
+            try {
+                return copyManager.copyIn(sql, new StringReader(csv.toString()));
+            } catch (IOException e) {
+                throw new SQLException("COPY into todos failed", e);
+            }
+        });
+    }
+
     @Override
     public Optional<TodoEntity> findById(Long id) {
-        String sql = "SELECT * FROM todos WHERE id = ?";
+        String sql = "SELECT " + COLUMNS + " FROM todos WHERE id = ?";
         List<TodoEntity> result = jdbcTemplate.query(sql, new TodoRowMapper(), id);
         return result.stream().findFirst();
     }
 
     @Override
-    public Page<TodoEntity> findAll(Pageable pageable) {
-        String sql = "SELECT * FROM todos ORDER BY created_at DESC LIMIT ? OFFSET ?";
-        List<TodoEntity> content = jdbcTemplate.query(
-                sql,
-                rowMapper,
-                pageable.getPageSize(),
-                pageable.getOffset()
-        );
-        String countSql = "SELECT COUNT(*) FROM todos";
-        Integer total = jdbcTemplate.queryForObject(countSql, Integer.class);
+    public List<TodoEntity> findAll(TodoFilter filter, Pageable pageable, Set<TodoField> fields) {
+        List<Object> args = new ArrayList<>();
+        List<String> conditions = conditions(filter, args);
+        String sql = "SELECT " + columns(fields) + " FROM todos" + where(conditions) +
+                " ORDER BY created_at DESC, id DESC LIMIT ? OFFSET ?";
+        args.add(pageable.getPageSize());
+        args.add(pageable.getOffset());
+        return jdbcTemplate.query(sql, rowMapper.forFields(fields), args.toArray());
+    }
 
-        return new PageImpl<>(content, pageable, total != null ? total : 0);
+    @Override
+    public List<TodoEntity> findAllAfter(TodoFilter filter, TodoCursor cursor, int limit, Set<TodoField> fields) {
+        List<Object> args = new ArrayList<>();
+        List<String> conditions = conditions(filter, args);
+        if (cursor != null) {
+            conditions.add("(created_at, id) < (?, ?)");
+            args.add(cursor.createdAt());
+            args.add(cursor.id());
+        }
+        String sql = "SELECT " + columns(fields) + " FROM todos" + where(conditions) +
+                " ORDER BY created_at DESC, id DESC LIMIT ?";
+        args.add(limit);
+        return jdbcTemplate.query(sql, rowMapper.forFields(fields), args.toArray());
     }
 
     @Override
-    public void update(TodoEntity entity) {
-        String sql = "UPDATE todos SET title = ?, description = ?, completed = ?, updated_at = ? WHERE id = ?";
-        jdbcTemplate.update(sql,
-                entity.getTitle(),
-                entity.getDescription(),
-                entity.isCompleted(),
-                entity.getUpdatedAt(),
-                entity.getId());
+    public List<TodoSearchHit> search(String query, SearchCursor cursor, int limit) {
+        String select = "SELECT " + COLUMNS + ", ts_rank(search_vector, query) AS rank " +
+                "FROM todos, websearch_to_tsquery('simple', ?) query " +
+                "WHERE search_vector @@ query ";
+        String order = "ORDER BY rank DESC, id DESC LIMIT ?";
+        RowMapper<TodoSearchHit> hitMapper = (rs, rowNum) ->
+                new TodoSearchHit(rowMapper.mapRow(rs, rowNum), rs.getFloat("rank"));
+        if (cursor == null) {
+            return jdbcTemplate.query(select + order, hitMapper, query, limit);
+        }
+        String sql = select + "AND (ts_rank(search_vector, query), id) < (?, ?) " + order;
+        return jdbcTemplate.query(sql, hitMapper, query, cursor.rank(), cursor.id(), limit);
     }
 
     @Override
-    public void deleteById(Long id) {
-        jdbcTemplate.update("DELETE FROM  todos WHERE id = ?", id);
+    public List<Long> findIdsWrittenInCurrentTransaction() {
+        // The trigger stamps every written row with the writing transaction, so this is an index lookup.
+        String sql = "SELECT id FROM todos WHERE change_xid = pg_current_xact_id() ORDER BY id";
+        return jdbcTemplate.queryForList(sql, Long.class);
+    }
+
+    @Override
+    public long changeHorizon() {
+        // Every transaction below the snapshot xmin has finished, so no change can still appear behind it.
+        String sql = "SELECT pg_snapshot_xmin(pg_current_snapshot())::text::bigint";
+        Long horizon = jdbcTemplate.queryForObject(sql, Long.class);
+        return horizon != null ? horizon : 0;
+    }
+
+    @Override
+    public List<TodoChange> findChangesAfter(ChangeToken after, long horizon, int limit) {
+        String range = "WHERE (change_xid, id) > (?::text::xid8, ?) AND change_xid < ?::text::xid8 " +
+                "ORDER BY change_xid, id LIMIT ?";
+        String sql = "(SELECT change_xid, false AS deleted, " + COLUMNS + " FROM todos " + range + ") " +
+                "UNION ALL " +
+                "(SELECT change_xid, true, id, NULL, NULL, NULL, NULL, NULL FROM todo_tombstones " + range + ") " +
+                "ORDER BY change_xid, id LIMIT ?";
+        RowMapper<TodoChange> changeMapper = (rs, rowNum) -> new TodoChange(
+                Long.parseLong(rs.getString("change_xid")),
+                rs.getLong("id"),
+                rs.getBoolean("deleted") ? null : rowMapper.mapRow(rs, rowNum));
+        return jdbcTemplate.query(sql, changeMapper,
+                after.xid(), after.id(), horizon, limit,
+                after.xid(), after.id(), horizon, limit,
+                limit);
+    }
+
+    @Override
+    public long changeTokenFloor() {
+        String sql = "SELECT value FROM todo_counters WHERE name = 'change_token_floor'";
+        Long floor = jdbcTemplate.queryForObject(sql, Long.class);
+        return floor != null ? floor : 0;
+    }
+
+    @Override
+    public int purgeTombstones(LocalDateTime deletedBefore) {
+        String sql = "WITH purged AS (DELETE FROM todo_tombstones WHERE deleted_at < ? RETURNING change_xid), " +
+                "marked AS (UPDATE todo_counters " +
+                "SET value = GREATEST(value, (SELECT MAX(change_xid::text::bigint) + 1 FROM purged)) " +
+                "WHERE name = 'change_token_floor') " +
+                "SELECT COUNT(*) FROM purged";
+        Integer purged = jdbcTemplate.queryForObject(sql, Integer.class, deletedBefore);
+        return purged != null ? purged : 0;
+    }
+
+    @Override
+    public void streamAll(Consumer<TodoEntity> action) {
+        String sql = "SELECT " + COLUMNS + " FROM todos ORDER BY id";
+        jdbcTemplate.query(
+                con -> {
+                    PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                    ps.setFetchSize(exportFetchSize);
+                    return ps;
+                },
+                (RowCallbackHandler) rs -> action.accept(rowMapper.mapRow(rs, rs.getRow())));
+    }
+
+    @Override
+    public void streamIds(LongConsumer action) {
+        String sql = "SELECT id FROM todos";
+        jdbcTemplate.query(
+                con -> {
+                    PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                    ps.setFetchSize(exportFetchSize);
+                    return ps;
+                },
+                (RowCallbackHandler) rs -> action.accept(rs.getLong(1)));
+    }
+
+    @Override
+    public Optional<TodoEntity> updateDetails(Long id, String title, String description, LocalDateTime updatedAt,
+                                             LocalDateTime expectedUpdatedAt) {
+        String sql = "UPDATE todos SET title = ?, description = ?, updated_at = ? WHERE id = ?" +
+                (expectedUpdatedAt != null ? " AND updated_at = ?" : "") + " RETURNING " + COLUMNS;
+        List<TodoEntity> result = expectedUpdatedAt != null
+                ? jdbcTemplate.query(sql, rowMapper, title, description, updatedAt, id, expectedUpdatedAt)
+                : jdbcTemplate.query(sql, rowMapper, title, description, updatedAt, id);
+        return result.stream().findFirst();
+    }
+
+    @Override
+    public Optional<TodoEntity> markAsCompleted(Long id, LocalDateTime updatedAt, LocalDateTime expectedUpdatedAt) {
+        String sql = "UPDATE todos SET completed = true, updated_at = ? WHERE id = ?" +
+                (expectedUpdatedAt != null ? " AND updated_at = ?" : "") + " RETURNING " + COLUMNS;
+        List<TodoEntity> result = expectedUpdatedAt != null
+                ? jdbcTemplate.query(sql, rowMapper, updatedAt, id, expectedUpdatedAt)
+                : jdbcTemplate.query(sql, rowMapper, updatedAt, id);
+        return result.stream().findFirst();
+    }
+
+    @Override
+    public List<TodoEntity> markAllAsCompleted(List<Long> ids, LocalDateTime updatedAt) {
+        String sql = "UPDATE todos SET completed = true, updated_at = ? WHERE id = ANY(?) RETURNING " + COLUMNS;
+        return jdbcTemplate.query(sql, rowMapper, updatedAt, ids.toArray(Long[]::new));
+    }
+
+    @Override
+    public void applyWrites(List<PendingWrite> writes) {
+        String sql = "UPDATE todos SET " +
+                "title = CASE WHEN ? THEN ? ELSE title END, " +
+                "description = CASE WHEN ? THEN ? ELSE description END, " +
+                "completed = completed OR ?, " +
+                "updated_at = GREATEST(updated_at, ?) " +
+                "WHERE id = ?";
+
+        for (int from = 0; from < writes.size(); from += batchSize) {
+            List<PendingWrite> batch = writes.subList(from, Math.min(from + batchSize, writes.size()));
+            jdbcTemplate.batchUpdate(sql, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    PendingWrite write = batch.get(i);
+                    ps.setBoolean(1, write.detailsChanged());
+                    ps.setString(2, write.title());
+                    ps.setBoolean(3, write.detailsChanged());
+                    ps.setString(4, write.description());
+                    ps.setBoolean(5, write.completed());
+                    ps.setObject(6, write.updatedAt());
+                    ps.setLong(7, write.id());
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return batch.size();
+                }
+            });
+        }
+    }
+
+    @Override
+    public boolean deleteById(Long id) {
+        return jdbcTemplate.update("DELETE FROM todos WHERE id = ?", id) > 0;
+    }
+
+    @Override
+    public List<Long> deleteAllById(List<Long> ids) {
+        String sql = "DELETE FROM todos WHERE id = ANY(?) RETURNING id";
+        return jdbcTemplate.queryForList(sql, Long.class, (Object) ids.toArray(Long[]::new));
     }
     @Override
     public boolean existsById(Long id) {
@@ -85,4 +344,80 @@ public class TodoRepositoryImpl implements TodoRepository{
         Boolean exists = jdbcTemplate.queryForObject(sql, Boolean.class, id);
         return Boolean.TRUE.equals(exists);
     }
+
+    @Override
+    public long count() {
+        String sql = "SELECT value FROM todo_counters WHERE name = 'todos'";
+        Long total = jdbcTemplate.queryForObject(sql, Long.class);
+        return total != null ? total : 0;
+    }
+
+    @Override
+    public long estimateCount() {
+        String sql = "SELECT reltuples::bigint FROM pg_class WHERE oid = 'todos'::regclass";
+        Long estimate = jdbcTemplate.queryForObject(sql, Long.class);
+        return estimate != null ? Math.max(estimate, 0) : 0;
+    }
+
+    @Override
+    public long count(TodoFilter filter) {
+        if (filter.isEmpty()) {
+            return count();
+        }
+        List<Object> args = new ArrayList<>();
+        String sql = "SELECT COUNT(*) FROM todos" + where(conditions(filter, args));
+        Long total = jdbcTemplate.queryForObject(sql, Long.class, args.toArray());
+        return total != null ? total : 0;
+    }
+
+    @Override
+    public long estimateCount(TodoFilter filter) {
+        if (filter.isEmpty()) {
+            return estimateCount();
+        }
+        List<Object> args = new ArrayList<>();
+        String sql = "EXPLAIN (FORMAT JSON) SELECT 1 FROM todos" + where(conditions(filter, args));
+        String plan = jdbcTemplate.queryForObject(sql, String.class, args.toArray());
+        Matcher rows = PLAN_ROWS.matcher(plan != null ? plan : "");
+        return rows.find() ? Long.parseLong(rows.group(1)) : 0;
+    }
+
+    private static String columns(Set<TodoField> fields) {
+        if (fields.containsAll(TodoField.ALL)) {
+            return COLUMNS;
+        }
+        return TodoField.withKeys(fields).stream().map(TodoField::column).collect(Collectors.joining(", "));
+    }
+
+    private static List<String> conditions(TodoFilter filter, List<Object> args) {
+        List<String> conditions = new ArrayList<>();
+        if (filter.completed() != null) {
+            // Inlined rather than bound so the planner can prove the partial index predicate
+            // even once the driver switches to a generic prepared plan.
+            conditions.add("completed = " + filter.completed());
+        }
+        addRange(conditions, args, "created_at", filter.createdFrom(), filter.createdTo());
+        addRange(conditions, args, "updated_at", filter.updatedFrom(), filter.updatedTo());
+        return conditions;
+    }
+
+    private static void addRange(List<String> conditions, List<Object> args, String column,
+                                 LocalDateTime from, LocalDateTime to) {
+        if (from != null) {
+            conditions.add(column + " >= ?");
+            args.add(from);
+        }
+        if (to != null) {
+            conditions.add(column + " < ?");
+            args.add(to);
+        }
+    }
+
+    private static String where(List<String> conditions) {
+        return conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+    }
+
+    private static StringBuilder appendCsv(StringBuilder csv, String value) {
+        return csv.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
 }
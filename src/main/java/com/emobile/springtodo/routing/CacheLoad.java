@@ -0,0 +1,18 @@
+package com.emobile.springtodo.routing;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a read-only method whose result fills a shared cache. Such reads go to the primary: a
+ * replica that has not replayed the write behind an eviction would put the old row back in the
+ * cache, where it would stay until the next write.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CacheLoad {
+}
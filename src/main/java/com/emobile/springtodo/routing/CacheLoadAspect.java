@@ -0,0 +1,25 @@
+package com.emobile.springtodo.routing;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+
+/**
+ * Routes the connections of {@link CacheLoad} methods to the primary. Cache hits never take a
+ * connection, so only the loads behind misses and evictions leave the replicas.
+ */
+@Aspect
+public class CacheLoadAspect {
+
+    @Around("@annotation(com.emobile.springtodo.routing.CacheLoad)")
+    public Object routeToPrimary(ProceedingJoinPoint joinPoint) throws Throwable {
+        boolean outermost = ReplicaRoutingDataSource.beginCacheLoad();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            if (outermost) {
+                ReplicaRoutingDataSource.endCacheLoad();
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.emobile.springtodo.routing;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends connections for read-only transactions to the replicas in turn and everything else to the
+ * primary. Reads also go to the primary while the thread is pinned for read-your-writes, while it
+ * loads a value into a shared cache, or when no replica is within the allowed lag. Needs a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}
+ * in front so the connection is only fetched once the transaction's read-only flag is set.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+
+    private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+
+    private static final ThreadLocal<Boolean> CACHE_LOAD = new ThreadLocal<>();
+
+    private final ReplicaSet replicaSet;
+
+    private final MeterRegistry meterRegistry;
+
+    private final ConcurrentMap<String, Counter> routed = new ConcurrentHashMap<>();
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(ReplicaSet replicaSet, MeterRegistry meterRegistry) {
+        this.replicaSet = replicaSet;
+        this.meterRegistry = meterRegistry;
+        Map<Object, Object> targets = new HashMap<>(replicaSet.replicas());
+        targets.put(PRIMARY, replicaSet.primary());
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(replicaSet.primary());
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    public static void pinToPrimary() {
+        PINNED.set(Boolean.TRUE);
+    }
+
+    public static void unpin() {
+        PINNED.remove();
+    }
+
+    /**
+     * Marks the thread as loading a cache value. Returns {@code false} if it already was, in which
+     * case the caller must leave the mark to the outer load.
+     */
+    public static boolean beginCacheLoad() {
+        if (CACHE_LOAD.get() != null) {
+            return false;
+        }
+        CACHE_LOAD.set(Boolean.TRUE);
+        return true;
+    }
+
+    public static void endCacheLoad() {
+        CACHE_LOAD.remove();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return route(PRIMARY, "read-write");
+        }
+        if (PINNED.get() != null) {
+            return route(PRIMARY, "pinned");
+        }
+        if (CACHE_LOAD.get() != null) {
+            return route(PRIMARY, "cache-load");
+        }
+        List<String> available = replicaSet.available();
+        if (available.isEmpty()) {
+            return route(PRIMARY, "no-replica");
+        }
+        return route(available.get(Math.floorMod(next.getAndIncrement(), available.size())), "read-only");
+    }
+
+    private String route(String target, String reason) {
+        routed.computeIfAbsent(target + ':' + reason, key -> Counter.builder("todo.datasource.routing")
+                        .description("Connections handed out by target and routing reason")
+                        .tag("target", target)
+                        .tag("reason", reason)
+                        .register(meterRegistry))
+                .increment();
+        return target;
+    }
+}
@@ -0,0 +1,138 @@
+package com.emobile.springtodo.routing;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The primary pool and the read replica pools. Replica lag is sampled on a schedule and only
+ * replicas within {@code maxLag} are offered for reads; a replica that cannot be reached counts
+ * as lagging until the next successful check.
+ */
+@Slf4j
+public class ReplicaSet implements SmartLifecycle, DisposableBean {
+
+    // A replica that has replayed everything it received is current even if the primary has been idle.
+    private static final String LAG_SQL = "SELECT CASE WHEN NOT pg_is_in_recovery() " +
+            "OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+            "ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) END";
+
+    private final HikariDataSource primary;
+
+    private final Map<String, HikariDataSource> replicas;
+
+    private final Map<String, JdbcTemplate> lagProbes = new LinkedHashMap<>();
+
+    private final Map<String, Double> lagSeconds = new ConcurrentHashMap<>();
+
+    private final Duration maxLag;
+
+    private final Duration checkInterval;
+
+    private volatile List<String> available = List.of();
+
+    private volatile ScheduledExecutorService executor;
+
+    public ReplicaSet(HikariDataSource primary, Map<String, HikariDataSource> replicas, MeterRegistry meterRegistry,
+                      Duration maxLag, Duration checkInterval) {
+        this.primary = primary;
+        this.replicas = replicas;
+        this.maxLag = maxLag;
+        this.checkInterval = checkInterval;
+        replicas.forEach((name, pool) -> {
+            lagProbes.put(name, new JdbcTemplate(pool));
+            lagSeconds.put(name, Double.NaN);
+            Gauge.builder("todo.datasource.replica.lag", lagSeconds, lags -> lags.get(name))
+                    .description("Replication lag of the replica, NaN while it cannot be reached")
+                    .baseUnit("seconds")
+                    .tag("replica", name)
+                    .register(meterRegistry);
+        });
+        Gauge.builder("todo.datasource.replica.available", this, set -> set.available().size())
+                .description("Replicas currently within the allowed lag")
+                .register(meterRegistry);
+    }
+
+    public DataSource primary() {
+        return primary;
+    }
+
+    public Map<String, ? extends DataSource> replicas() {
+        return replicas;
+    }
+
+    public List<String> available() {
+        return available;
+    }
+
+    public void checkLag() {
+        List<String> healthy = new ArrayList<>(replicas.size());
+        lagProbes.forEach((name, probe) -> {
+            double lag = measureLag(name, probe);
+            lagSeconds.put(name, lag);
+            if (lag <= maxLag.toMillis() / 1000.0) {
+                healthy.add(name);
+            }
+        });
+        if (healthy.size() != available.size()) {
+            log.info("Replicas available for reads: {} of {}", healthy, replicas.keySet());
+        }
+        available = List.copyOf(healthy);
+    }
+
+    @Override
+    public void start() {
+        checkLag();
+        executor = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+                .name("todo-replica-lag")
+                .daemon(true)
+                .factory());
+        long intervalMillis = checkInterval.toMillis();
+        executor.scheduleWithFixedDelay(this::checkLag, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        ScheduledExecutorService current = executor;
+        if (current != null) {
+            executor = null;
+            current.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return executor != null;
+    }
+
+    @Override
+    public void destroy() {
+        replicas.values().forEach(HikariDataSource::close);
+        primary.close();
+    }
+
+    private double measureLag(String name, JdbcTemplate probe) {
+        try {
+            Double lag = probe.queryForObject(LAG_SQL, Double.class);
+            return lag != null ? lag : Double.NaN;
+        } catch (RuntimeException e) {
+            log.warn("Lag check failed for replica {}: {}", name, e.getMessage());
+            return Double.NaN;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.emobile.springtodo.service;
+
+import com.emobile.springtodo.dto.request.ImportFormat;
+import com.emobile.springtodo.dto.request.TodoRequestDTO;
+import com.emobile.springtodo.exception.BadRequestException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+@Component
+@RequiredArgsConstructor
+public class TodoImportReader {
+
+    private static final CsvMapper CSV_MAPPER = new CsvMapper();
+
+    private final ObjectMapper objectMapper;
+
+    public record Row(long line, TodoRequestDTO todo, Map<String, String> errors) {
+    }
+
+    public Iterator<Row> read(InputStream inputStream, ImportFormat format) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        return switch (format) {
+            case NDJSON -> new NdjsonRows(reader, objectMapper.readerFor(TodoRequestDTO.class));
+            case CSV -> new CsvRows(CSV_MAPPER.readerForArrayOf(String.class)
+                    .with(CsvParser.Feature.WRAP_AS_ARRAY)
+                    .readValues(reader));
+        };
+    }
+
+    private static final class NdjsonRows implements Iterator<Row> {
+
+        private final BufferedReader reader;
+
+        private final ObjectReader todoReader;
+
+        private long line;
+
+        private String next;
+
+        NdjsonRows(BufferedReader reader, ObjectReader todoReader) {
+            this.reader = reader;
+            this.todoReader = todoReader;
+        }
+
+        @Override
+        public boolean hasNext() {
+            try {
+                while (next == null) {
+                    String candidate = reader.readLine();
+                    if (candidate == null) {
+                        return false;
+                    }
+                    line++;
+                    if (!candidate.isBlank()) {
+                        next = candidate;
+                    }
+                }
+                return true;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public Row next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            String json = next;
+            next = null;
+            try {
+                TodoRequestDTO todo = todoReader.readValue(json);
+                if (todo == null) {
+                    return new Row(line, null, Map.of("line", "must be a JSON object"));
+                }
+                return new Row(line, todo, Map.of());
+            } catch (JsonProcessingException e) {
+                return new Row(line, null, Map.of("line", "malformed JSON"));
+            }
+        }
+    }
+
+    private static final class CsvRows implements Iterator<Row> {
+
+        private final MappingIterator<String[]> rows;
+
+        private final int title;
+
+        private final int description;
+
+        private final int completed;
+
+        private long line = 1;
+
+        CsvRows(MappingIterator<String[]> rows) throws IOException {
+            this.rows = rows;
+            if (!rows.hasNextValue()) {
+                throw new BadRequestException("CSV import must start with a header row");
+            }
+            List<String> header = Arrays.stream(rows.nextValue())
+                    .map(column -> column.trim().toLowerCase(Locale.ROOT))
+                    .toList();
+            this.title = header.indexOf("title");
+            this.description = header.indexOf("description");
+            this.completed = header.indexOf("completed");
+            if (title < 0) {
+                throw new BadRequestException("CSV header must contain a title column");
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return rows.hasNext();
+        }
+
+        @Override
+        public Row next() {
+            line++;
+            String[] values;
+            try {
+                values = rows.next();
+            } catch (RuntimeJsonMappingException e) {
+                // The parser skips to the next row, so one broken row does not end the import.
+                return new Row(line, null, Map.of("line", "malformed CSV"));
+            }
+            String completedValue = column(values, completed);
+            if (completedValue != null && !completedValue.equalsIgnoreCase("true")
+                    && !completedValue.equalsIgnoreCase("false")) {
+                return new Row(line, null, Map.of("completed", "must be true or false"));
+            }
+            return new Row(line, new TodoRequestDTO(column(values, title), column(values, description),
+                    Boolean.parseBoolean(completedValue)), Map.of());
+        }
+
+        private static String column(String[] values, int index) {
+            if (index < 0 || index >= values.length || values[index].isEmpty()) {
+                return null;
+            }
+            return values[index];
+        }
+    }
+}
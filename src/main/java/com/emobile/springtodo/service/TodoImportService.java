@@ -0,0 +1,174 @@
+package com.emobile.springtodo.service;
+
+import com.emobile.springtodo.cache.TodoIdFilter;
+import com.emobile.springtodo.cache.TodoListVersion;
+import com.emobile.springtodo.dto.request.ImportFormat;
+import com.emobile.springtodo.dto.request.TodoRequestDTO;
+import com.emobile.springtodo.dto.response.ImportChunkDTO;
+import com.emobile.springtodo.dto.response.ImportResponseDTO;
+import com.emobile.springtodo.entity.TodoEntity;
+import com.emobile.springtodo.mapper.TodoMapper;
+import com.emobile.springtodo.repository.TodoRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+@Slf4j
+@Service
+public class TodoImportService {
+
+    private final TodoRepository repository;
+
+    private final TodoMapper mapper;
+
+    private final Validator validator;
+
+    private final TodoImportReader importReader;
+
+    private final TodoListVersion listVersion;
+
+    private final TodoIdFilter idFilter;
+
+    private final TransactionTemplate chunkTransaction;
+
+    private final int chunkSize;
+
+    private final int maxReportedErrors;
+
+    public TodoImportService(TodoRepository repository,
+                             TodoMapper mapper,
+                             Validator validator,
+                             TodoImportReader importReader,
+                             TodoListVersion listVersion,
+                             TodoIdFilter idFilter,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${todo.import.chunk-size:5000}") int chunkSize,
+                             @Value("${todo.import.max-reported-errors:100}") int maxReportedErrors) {
+        this.repository = repository;
+        this.mapper = mapper;
+        this.validator = validator;
+        this.importReader = importReader;
+        this.listVersion = listVersion;
+        this.idFilter = idFilter;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    /**
+     * Loads the rows chunk by chunk, each chunk in its own transaction, so the counter row lock is
+     * only held for one chunk at a time. A chunk that fails to load is reported and the import
+     * carries on with the next one; chunks committed before it stay.
+     */
+    public ImportResponseDTO importAll(InputStream inputStream, ImportFormat format) throws IOException {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        Chunk chunk = new Chunk(chunkSize);
+        List<ImportChunkDTO> chunks = new ArrayList<>();
+        Map<Long, Map<String, String>> errors = new TreeMap<>();
+        long rejected = 0;
+
+        Iterator<TodoImportReader.Row> rows = importReader.read(inputStream, format);
+        while (rows.hasNext()) {
+            TodoImportReader.Row row = rows.next();
+            chunk.advanceTo(row.line());
+            Map<String, String> rowErrors = row.todo() != null ? validate(row.todo()) : row.errors();
+            if (!rowErrors.isEmpty()) {
+                rejected++;
+                if (errors.size() < maxReportedErrors) {
+                    errors.put(row.line(), rowErrors);
+                }
+                continue;
+            }
+            TodoEntity entity = mapper.requestToEntity(row.todo());
+            entity.setCreatedAt(now);
+            entity.setUpdatedAt(now);
+            chunk.todos().add(entity);
+            if (chunk.todos().size() >= chunkSize) {
+                rejected += load(chunk, chunks);
+                chunk = new Chunk(chunkSize);
+            }
+        }
+        if (!chunk.todos().isEmpty()) {
+            rejected += load(chunk, chunks);
+        }
+        long accepted = chunks.stream().mapToLong(ImportChunkDTO::accepted).sum();
+        log.info("Todos imported from {}: {} accepted, {} rejected in {} chunks", format, accepted, rejected,
+                chunks.size());
+        return new ImportResponseDTO(accepted, rejected, errors, chunks);
+    }
+
+    // Returns the number of rows lost with the chunk.
+    private long load(Chunk chunk, List<ImportChunkDTO> chunks) {
+        try {
+            List<Long> ids = chunkTransaction.execute(status -> {
+                repository.copyAll(chunk.todos());
+                return repository.findIdsWrittenInCurrentTransaction();
+            });
+            ids.forEach(idFilter::add);
+            listVersion.bump();
+            log.debug("Import chunk for lines {}-{} committed", chunk.firstLine(), chunk.lastLine());
+            chunks.add(new ImportChunkDTO(chunk.firstLine(), chunk.lastLine(), ids.size(), null));
+            return 0;
+        } catch (DataAccessException e) {
+            log.warn("Import chunk for lines {}-{} failed: {}", chunk.firstLine(), chunk.lastLine(), e.getMessage());
+            chunks.add(new ImportChunkDTO(chunk.firstLine(), chunk.lastLine(), 0, "chunk could not be loaded"));
+            return chunk.todos().size();
+        }
+    }
+
+    private Map<String, String> validate(TodoRequestDTO todo) {
+        Map<String, String> rowErrors = new LinkedHashMap<>();
+        for (ConstraintViolation<TodoRequestDTO> violation : validator.validate(todo)) {
+            rowErrors.put(violation.getPropertyPath().toString(), violation.getMessage());
+        }
+        return rowErrors;
+    }
+
+    private static final class Chunk {
+
+        private final List<TodoEntity> todos;
+
+        private long firstLine;
+
+        private long lastLine;
+
+        Chunk(int capacity) {
+            this.todos = new ArrayList<>(capacity);
+        }
+
+        void advanceTo(long line) {
+            if (firstLine == 0) {
+                firstLine = line;
+            }
+            lastLine = line;
+        }
+
+        List<TodoEntity> todos() {
+            return todos;
+        }
+
+        long firstLine() {
+            return firstLine;
+        }
+
+        long lastLine() {
+            return lastLine;
+        }
+    }
+}
@@ -1,19 +1,55 @@
 package com.emobile.springtodo.service;
 
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 @Service
 public class TodoMetricsService {
 
+    private final MeterRegistry meterRegistry;
+
     private final Counter completedCounter;
 
+    private final Timer searchTimer;
+
+    private final ConcurrentMap<String, DistributionSummary> listRows = new ConcurrentHashMap<>();
+
     public TodoMetricsService(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
         this.completedCounter = meterRegistry.counter("todo.completed.count");
+        this.searchTimer = Timer.builder("todo.search.latency")
+                .description("Full-text search query latency")
+                .register(meterRegistry);
     }
 
     public void incrementCompleted() {
         completedCounter.increment();
     }
+
+    public void incrementCompleted(int count) {
+        completedCounter.increment(count);
+    }
+
+    public Timer.Sample startSearch() {
+        return Timer.start(meterRegistry);
+    }
+
+    public void stopSearch(Timer.Sample sample) {
+        sample.stop(searchTimer);
+    }
+
+    public void recordListRows(String query, int rows) {
+        listRows.computeIfAbsent(query, key -> DistributionSummary.builder("todo.list.rows")
+                        .description("Rows returned by one list query")
+                        .baseUnit("rows")
+                        .tag("query", key)
+                        .register(meterRegistry))
+                .record(rows);
+    }
 }
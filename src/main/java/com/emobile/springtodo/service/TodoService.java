@@ -1,14 +1,34 @@
 package com.emobile.springtodo.service;
 
+import com.emobile.springtodo.dto.request.CountMode;
+import com.emobile.springtodo.dto.request.TodoField;
+import com.emobile.springtodo.dto.request.TodoFilter;
 import com.emobile.springtodo.dto.request.TodoRequestDTO;
+import com.emobile.springtodo.dto.response.BatchCreateResponseDTO;
+import com.emobile.springtodo.dto.response.BatchOperationResponseDTO;
+import com.emobile.springtodo.dto.response.ChangesResponseDTO;
 import com.emobile.springtodo.dto.response.PageResponse;
 import com.emobile.springtodo.dto.response.TodoResponseDTO;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
 public interface TodoService {
     TodoResponseDTO create(TodoRequestDTO request);
+    BatchCreateResponseDTO createAll(List<TodoRequestDTO> requests);
     TodoResponseDTO getById(Long id);
-    PageResponse<TodoResponseDTO> getAll(int page, int perPage);
-    TodoResponseDTO update(Long id, TodoRequestDTO request);
+    PageResponse<TodoResponseDTO> getAll(String listVersion, int page, int perPage, CountMode countMode,
+                                         TodoFilter filter, Set<TodoField> fields);
+    PageResponse<TodoResponseDTO> getAllByCursor(String cursor, int perPage, TodoFilter filter, Set<TodoField> fields);
+    PageResponse<TodoResponseDTO> search(String query, String cursor, int perPage);
+    ChangesResponseDTO getChanges(String since, int limit);
+    void exportAll(OutputStream outputStream) throws IOException;
+    TodoResponseDTO update(Long id, TodoRequestDTO request, LocalDateTime expectedUpdatedAt);
     void delete(Long id);
-    TodoResponseDTO markAsCompleted(Long id);
+    BatchOperationResponseDTO deleteAll(List<Long> ids);
+    TodoResponseDTO markAsCompleted(Long id, LocalDateTime expectedUpdatedAt);
+    BatchOperationResponseDTO markAllAsCompleted(List<Long> ids);
 }
@@ -1,72 +1,272 @@
 package com.emobile.springtodo.service;
 
+import com.emobile.springtodo.cache.TodoCacheOperations;
+import com.emobile.springtodo.cache.TodoIdFilter;
+import com.emobile.springtodo.cache.TodoListVersion;
+import com.emobile.springtodo.dto.request.CountMode;
+import com.emobile.springtodo.dto.request.TodoField;
+import com.emobile.springtodo.dto.request.TodoFilter;
 import com.emobile.springtodo.dto.request.TodoRequestDTO;
+import com.emobile.springtodo.dto.response.BatchCreateResponseDTO;
+import com.emobile.springtodo.dto.response.BatchOperationResponseDTO;
+import com.emobile.springtodo.dto.response.ChangesResponseDTO;
 import com.emobile.springtodo.dto.response.PageResponse;
 import com.emobile.springtodo.dto.response.TodoResponseDTO;
+import com.emobile.springtodo.entity.TodoChange;
 import com.emobile.springtodo.entity.TodoEntity;
+import com.emobile.springtodo.entity.TodoSearchHit;
+import com.emobile.springtodo.exception.BadRequestException;
+import com.emobile.springtodo.exception.BatchValidationException;
 import com.emobile.springtodo.exception.CustomException;
+import com.emobile.springtodo.exception.GoneException;
+import com.emobile.springtodo.exception.PreconditionFailedException;
 import com.emobile.springtodo.mapper.TodoMapper;
+import com.emobile.springtodo.pagination.ChangeToken;
+import com.emobile.springtodo.pagination.SearchCursor;
+import com.emobile.springtodo.pagination.TodoCursor;
 import com.emobile.springtodo.repository.TodoRepository;
+import com.emobile.springtodo.routing.CacheLoad;
+import com.emobile.springtodo.writebehind.PendingWrite;
+import com.emobile.springtodo.writebehind.TodoWriteBehindQueue;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Timer;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
 
 @Service
 @Slf4j
 @RequiredArgsConstructor
+@Timed("todo.service")
 public class TodoServiceImpl implements TodoService{
 
+    static final int MAX_CHANGES_BATCH = 1000;
+
+    static final int MAX_PER_PAGE = 1000;
+
     private final TodoMapper mapper;
 
     private final TodoRepository repository;
 
     private final TodoMetricsService metricsService;
 
+    private final Validator validator;
+
+    private final TodoCacheOperations cacheOperations;
+
+    private final TodoListVersion listVersion;
+
+    private final TodoWriteBehindQueue writeBehind;
+
+    private final ObjectMapper objectMapper;
+
+    private final TodoIdFilter idFilter;
+
+    @Value("${todo.batch.max-size:1000}")
+    private int maxBatchSize;
+
     @Override
     public TodoResponseDTO create(TodoRequestDTO request) {
         TodoEntity entity = mapper.requestToEntity(request);
         entity.setCreatedAt(LocalDateTime.now());
         entity.setUpdatedAt(LocalDateTime.now());
         repository.save(entity);
+        idFilter.add(entity.getId());
+        listVersion.bump();
         log.info("Entity created: {}", entity.getId());
         return mapper.entityToResponse(entity);
     }
 
-    @Cacheable(value = "todos", key = "#id")
+    @Transactional
+    @Override
+    public BatchCreateResponseDTO createAll(List<TodoRequestDTO> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new BadRequestException("Batch must contain at least one todo");
+        }
+        checkBatchSize(requests.size());
+        validateBatch(requests);
+        List<TodoEntity> entityList = requests.stream()
+                .map(mapper::requestToEntity)
+                .toList();
+        repository.saveAll(entityList);
+        entityList.forEach(entity -> idFilter.add(entity.getId()));
+        listVersion.bump();
+        log.info("Entities created in batch: {}", entityList.size());
+        return new BatchCreateResponseDTO(entityList.stream().map(TodoEntity::getId).toList());
+    }
+
+    @Cacheable(value = "todos", key = "#id", sync = true)
+    @Transactional(readOnly = true)
+    @CacheLoad
     @Override
     public TodoResponseDTO getById(Long id) {
+        checkNotMissing(id);
+        if (cacheOperations.isKnownMissing(id)) {
+            throw new CustomException("Task " + id +" not found ");
+        }
         TodoEntity entity = repository.findById(id)
-                .orElseThrow(() -> new CustomException("Task " + id +" not found "));
-        return mapper.entityToResponse(entity);
+                .orElseThrow(() -> missing(id));
+        TodoResponseDTO response = mapper.entityToResponse(entity);
+        return writeBehind.isEnabled() ? writeBehind.overlay(response) : response;
     }
 
+    @Cacheable(value = TodoListVersion.CACHE_NAME,
+            key = "#listVersion + ':' + #page + ':' + #perPage + ':' + #countMode + ':' + #filter + ':' + #fields")
+    @Transactional(readOnly = true)
+    @CacheLoad
     @Override
-    public PageResponse<TodoResponseDTO> getAll(int page, int perPage) {
+    public PageResponse<TodoResponseDTO> getAll(String listVersion, int page, int perPage, CountMode countMode,
+                                                TodoFilter filter, Set<TodoField> fields) {
+        if (page < 1) {
+            throw new BadRequestException("page must be positive");
+        }
+        checkPerPage(perPage);
         Pageable pageable = PageRequest.of(page - 1, perPage);
-        Page<TodoEntity> todosPage = repository.findAll(pageable);
-        List<TodoEntity> entityList = todosPage.getContent();
-        List<TodoResponseDTO> response = mapper.listTodoEntityToListTodoResponse(entityList);
-        return new PageResponse<>(response, todosPage.getTotalElements());
+        List<TodoEntity> entityList = repository.findAll(filter, pageable, fields);
+        metricsService.recordListRows("offset", entityList.size());
+        List<TodoResponseDTO> response = overlayPending(mapper.listTodoEntityToListTodoResponse(entityList));
+        return new PageResponse<>(response, count(countMode, filter));
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public PageResponse<TodoResponseDTO> getAllByCursor(String cursor, int perPage, TodoFilter filter,
+                                                        Set<TodoField> fields) {
+        checkPerPage(perPage);
+        TodoCursor after = cursor.isEmpty() ? null : TodoCursor.decode(cursor);
+        List<TodoEntity> entityList = repository.findAllAfter(filter, after, perPage + 1, fields);
+        metricsService.recordListRows("cursor", entityList.size());
+        String nextCursor = null;
+        if (entityList.size() > perPage) {
+            entityList = entityList.subList(0, perPage);
+            nextCursor = TodoCursor.of(entityList.get(perPage - 1)).encode();
+        }
+        List<TodoResponseDTO> response = overlayPending(mapper.listTodoEntityToListTodoResponse(entityList));
+        return new PageResponse<>(response, null, nextCursor);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public PageResponse<TodoResponseDTO> search(String query, String cursor, int perPage) {
+        if (query == null || query.isBlank()) {
+            throw new BadRequestException("Search query must not be blank");
+        }
+        checkPerPage(perPage);
+        SearchCursor after = cursor == null || cursor.isEmpty() ? null : SearchCursor.decode(cursor);
+        Timer.Sample sample = metricsService.startSearch();
+        List<TodoSearchHit> hits;
+        try {
+            hits = repository.search(query, after, perPage + 1);
+        } finally {
+            metricsService.stopSearch(sample);
+        }
+        metricsService.recordListRows("search", hits.size());
+        String nextCursor = null;
+        if (hits.size() > perPage) {
+            hits = hits.subList(0, perPage);
+            nextCursor = SearchCursor.of(hits.get(perPage - 1)).encode();
+        }
+        List<TodoResponseDTO> response = mapper.listTodoEntityToListTodoResponse(
+                hits.stream().map(TodoSearchHit::todo).toList());
+        return new PageResponse<>(response, null, nextCursor);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public ChangesResponseDTO getChanges(String since, int limit) {
+        if (limit < 1) {
+            throw new BadRequestException("limit must be positive");
+        }
+        int batch = Math.min(limit, MAX_CHANGES_BATCH);
+        boolean resuming = since != null && !since.isEmpty();
+        ChangeToken after = resuming ? ChangeToken.decode(since) : ChangeToken.START;
+        long horizon = repository.changeHorizon();
+        List<TodoChange> changes = repository.findChangesAfter(after, horizon, batch + 1);
+        // Checked after the read, so tombstones purged by a compaction racing it cannot go unnoticed.
+        if (resuming && after.xid() < repository.changeTokenFloor()) {
+            throw new GoneException("Change token expired, sync from the start");
+        }
+        metricsService.recordListRows("changes", changes.size());
+        boolean hasMore = changes.size() > batch;
+        ChangeToken next;
+        if (hasMore) {
+            changes = changes.subList(0, batch);
+            next = ChangeToken.of(changes.get(batch - 1));
+        } else {
+            // Caught up: point just past the last finished transaction rather than at a running one.
+            ChangeToken caughtUp = new ChangeToken(horizon - 1, Long.MAX_VALUE);
+            next = after.xid() > caughtUp.xid() ? after : caughtUp;
+        }
+        List<TodoResponseDTO> changed = mapper.listTodoEntityToListTodoResponse(
+                changes.stream().map(TodoChange::todo).filter(Objects::nonNull).toList());
+        List<Long> deleted = changes.stream().filter(TodoChange::isDeleted).map(TodoChange::id).toList();
+        return new ChangesResponseDTO(changed, deleted, next.encode(), hasMore);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public void exportAll(OutputStream outputStream) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            LongAdder exported = new LongAdder();
+            repository.streamAll(entity -> {
+                try {
+                    generator.writeObject(mapper.entityToResponse(entity));
+                    generator.writeRaw('\n');
+                    exported.increment();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            log.info("Entities exported: {}", exported.sum());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
     }
 
     @CachePut(value = "todos", key = "#id")
     @Override
-    public TodoResponseDTO update(Long id, TodoRequestDTO request) {
-        TodoEntity entity = repository.findById(id)
-                .orElseThrow(() -> new CustomException("Task " + id +" not found "));
-        entity.setTitle(request.title());
-        entity.setUpdatedAt(LocalDateTime.now());
-        entity.setDescription(request.description());
-        repository.update(entity);
+    public TodoResponseDTO update(Long id, TodoRequestDTO request, LocalDateTime expectedUpdatedAt) {
+        checkNotMissing(id);
+        if (writeBehind.isEnabled()) {
+            TodoResponseDTO current = current(id, expectedUpdatedAt);
+            LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+            writeBehind.enqueue(PendingWrite.details(id, request.title(), request.description(), now));
+            listVersion.bump();
+            log.info("Entity update queued: {}", id);
+            return new TodoResponseDTO(id, request.title(), request.description(),
+                    current.completed(), current.createdAt(), now);
+        }
+        TodoEntity entity = repository.updateDetails(id, request.title(), request.description(), LocalDateTime.now(),
+                        expectedUpdatedAt)
+                .orElseThrow(() -> notUpdated(id, expectedUpdatedAt));
+        listVersion.bump();
         log.info("Entity updated: {}", entity.getId());
         return mapper.entityToResponse(entity);
     }
@@ -74,23 +274,151 @@ public class TodoServiceImpl implements TodoService{
     @CacheEvict(value = "todos", key = "#id")
     @Override
     public void delete(Long id) {
-        if (!repository.existsById(id)){
-            throw new CustomException("Task " + id +" not found ");
+        checkNotMissing(id);
+        writeBehind.discard(id);
+        if (!repository.deleteById(id)){
+            throw missing(id);
         }
-        repository.deleteById(id);
+        cacheOperations.markMissing(id);
+        listVersion.bump();
         log.info("Entity deleted: {}", id);
     }
 
+    @Override
+    public BatchOperationResponseDTO deleteAll(List<Long> ids) {
+        checkBatchSize(ids.size());
+        ids.forEach(writeBehind::discard);
+        List<Long> deleted = repository.deleteAllById(ids);
+        cacheOperations.evict(deleted);
+        cacheOperations.markMissing(deleted);
+        if (!deleted.isEmpty()) {
+            listVersion.bump();
+        }
+        log.info("Entities deleted in batch: {}", deleted.size());
+        return batchResult(ids, deleted);
+    }
+
     @CachePut(value = "todos", key = "#id")
     @Override
-    public TodoResponseDTO markAsCompleted(Long id) {
-        TodoEntity entity = repository.findById(id)
-                .orElseThrow(() -> new CustomException("Task " + id +" not found "));
-        entity.setCompleted(true);
-        entity.setUpdatedAt(LocalDateTime.now());
-        repository.update(entity);
+    public TodoResponseDTO markAsCompleted(Long id, LocalDateTime expectedUpdatedAt) {
+        checkNotMissing(id);
+        if (writeBehind.isEnabled()) {
+            TodoResponseDTO current = current(id, expectedUpdatedAt);
+            LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+            writeBehind.enqueue(PendingWrite.completion(id, now));
+            listVersion.bump();
+            metricsService.incrementCompleted();
+            log.info("Task completion queued : {}", id);
+            return new TodoResponseDTO(id, current.title(), current.description(),
+                    true, current.createdAt(), now);
+        }
+        TodoEntity entity = repository.markAsCompleted(id, LocalDateTime.now(), expectedUpdatedAt)
+                .orElseThrow(() -> notUpdated(id, expectedUpdatedAt));
+        listVersion.bump();
         metricsService.incrementCompleted();
         log.info("Task completed : {}", entity.getId());
         return mapper.entityToResponse(entity);
     }
+
+    @Override
+    public BatchOperationResponseDTO markAllAsCompleted(List<Long> ids) {
+        checkBatchSize(ids.size());
+        List<TodoEntity> entityList = repository.markAllAsCompleted(ids, LocalDateTime.now());
+        cacheOperations.refresh(mapper.listTodoEntityToListTodoResponse(entityList));
+        if (!entityList.isEmpty()) {
+            listVersion.bump();
+        }
+        metricsService.incrementCompleted(entityList.size());
+        log.info("Tasks completed in batch: {}", entityList.size());
+        return batchResult(ids, entityList.stream().map(TodoEntity::getId).toList());
+    }
+
+    // Pages read before the flush would otherwise show, and cache, the todo as it was before the queued write.
+    private List<TodoResponseDTO> overlayPending(List<TodoResponseDTO> todos) {
+        return writeBehind.isEnabled() ? todos.stream().map(writeBehind::overlay).toList() : todos;
+    }
+
+    private TodoResponseDTO current(Long id, LocalDateTime expectedUpdatedAt) {
+        TodoResponseDTO current = cacheOperations.get(id);
+        if (current == null) {
+            current = repository.findById(id)
+                    .map(mapper::entityToResponse)
+                    .map(writeBehind::overlay)
+                    .orElseThrow(() -> missing(id));
+        }
+        if (expectedUpdatedAt != null && !expectedUpdatedAt.equals(current.updatedAt())) {
+            throw new PreconditionFailedException("Task " + id + " was modified since " + expectedUpdatedAt);
+        }
+        return current;
+    }
+
+    private RuntimeException notUpdated(Long id, LocalDateTime expectedUpdatedAt) {
+        if (expectedUpdatedAt != null && repository.existsById(id)) {
+            return new PreconditionFailedException("Task " + id + " was modified since " + expectedUpdatedAt);
+        }
+        return missing(id);
+    }
+
+    private void checkBatchSize(int size) {
+        if (size > maxBatchSize) {
+            throw new BadRequestException("Batch must contain at most " + maxBatchSize + " items");
+        }
+    }
+
+    private static void checkPerPage(int perPage) {
+        if (perPage < 1 || perPage > MAX_PER_PAGE) {
+            throw new BadRequestException("perPage must be between 1 and " + MAX_PER_PAGE);
+        }
+    }
+
+    private void checkNotMissing(Long id) {
+        if (idFilter.isDefinitelyAbsent(id)) {
+            throw new CustomException("Task " + id +" not found ");
+        }
+    }
+
+    private CustomException missing(Long id) {
+        // Only ids the filter vouches for are remembered: a newer id may still be created by another node.
+        if (idFilter.covers(id)) {
+            cacheOperations.markMissing(id);
+        }
+        return new CustomException("Task " + id +" not found ");
+    }
+
+    private BatchOperationResponseDTO batchResult(List<Long> requested, List<Long> processed) {
+        Set<Long> processedIds = new HashSet<>(processed);
+        List<Long> missing = new LinkedHashSet<>(requested).stream()
+                .filter(id -> !processedIds.contains(id))
+                .toList();
+        return new BatchOperationResponseDTO(processed, missing);
+    }
+
+    private Long count(CountMode countMode, TodoFilter filter) {
+        return switch (countMode) {
+            case EXACT -> repository.count(filter);
+            case ESTIMATED -> repository.estimateCount(filter);
+            case NONE -> null;
+        };
+    }
+
+    private void validateBatch(List<TodoRequestDTO> requests) {
+        Map<Integer, Map<String, String>> errors = new TreeMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            TodoRequestDTO request = requests.get(i);
+            if (request == null) {
+                errors.put(i, Map.of("item", "must not be null"));
+                continue;
+            }
+            Map<String, String> itemErrors = new LinkedHashMap<>();
+            for (ConstraintViolation<TodoRequestDTO> violation : validator.validate(request)) {
+                itemErrors.put(violation.getPropertyPath().toString(), violation.getMessage());
+            }
+            if (!itemErrors.isEmpty()) {
+                errors.put(i, itemErrors);
+            }
+        }
+        if (!errors.isEmpty()) {
+            throw new BatchValidationException(errors);
+        }
+    }
 }
@@ -1,15 +1,36 @@
 package com.emobile.springtodo.swagger;
 
+import com.emobile.springtodo.dto.request.BatchIdsRequestDTO;
+import com.emobile.springtodo.dto.request.CountMode;
+import com.emobile.springtodo.dto.request.ImportFormat;
+import com.emobile.springtodo.dto.request.TodoFilter;
 import com.emobile.springtodo.dto.request.TodoRequestDTO;
+import com.emobile.springtodo.dto.request.TodoView;
+import com.emobile.springtodo.dto.response.BatchCreateResponseDTO;
+import com.emobile.springtodo.dto.response.BatchOperationResponseDTO;
+import com.emobile.springtodo.dto.response.ChangesResponseDTO;
+import com.emobile.springtodo.dto.response.ImportResponseDTO;
 import com.emobile.springtodo.dto.response.PageResponse;
 import com.emobile.springtodo.dto.response.TodoResponseDTO;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.parameters.RequestBody;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import org.springdoc.core.annotations.ParameterObject;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
 
 @RequestMapping("/api/todos")
 @Tag(name = "TODOs", description = "Operations with TODO items")
@@ -18,37 +39,134 @@ public interface TodoApi {
     @Operation(summary = "Create a new TODO", description = "Creates a new TODO item with title and due date.")
     @ApiResponses({
             @ApiResponse(responseCode = "201", description = "TODO created"),
-            @ApiResponse(responseCode = "400", description = "Invalid input"),
+            @ApiResponse(responseCode = "400", description = "Invalid input or too many IDs"),
     })
     @PostMapping
     TodoResponseDTO createTodo(@Valid @RequestBody TodoRequestDTO request);
 
-    @Operation(summary = "Get all TODOs", description = "Returns paginated list of TODOs")
+    @Operation(summary = "Create TODOs in batch", description = "Creates all TODO items in one transaction " +
+            "and returns their ids in request order. Nothing is created if any item is invalid. " +
+            "At most todo.batch.max-size (1000 by default) items per request.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "201", description = "TODOs created"),
+            @ApiResponse(responseCode = "400", description = "Too many items, or invalid input with errors reported per item index"),
+    })
+    @PostMapping("/batch")
+    BatchCreateResponseDTO createTodos(@RequestBody List<TodoRequestDTO> requests);
+
+    @Operation(summary = "Get all TODOs", description = "Returns paginated list of TODOs. " +
+            "Pass cursor (empty for the first page) to switch to keyset pagination and follow nextCursor. " +
+            "count selects how numberOfElements is computed: EXACT, ESTIMATED or NONE. " +
+            "Optional filters: completed, createdFrom/createdTo and updatedFrom/updatedTo as ISO date-times, " +
+            "From bounds are inclusive and To bounds exclusive. Counts follow the filters. " +
+            "view=SUMMARY leaves out the description; fields lists the properties to return, e.g. id,title, " +
+            "and only those columns are read. " +
+            "The response carries an ETag; send it back in If-None-Match to get 304 while nothing has changed")
     @ApiResponses({
-            @ApiResponse(responseCode = "200", description = "Found TODO")
+            @ApiResponse(responseCode = "200", description = "Found TODO"),
+            @ApiResponse(responseCode = "304", description = "Page not modified"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor, page size (1 to 1000), count mode, view, field or filter value")
     })
     @GetMapping
-    PageResponse<TodoResponseDTO> getAllTodos(
+    PageResponse<?> getAllTodos(
             @RequestParam(defaultValue = "0") int offset,
-            @RequestParam(defaultValue = "10") int limit
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "EXACT") CountMode count,
+            @RequestParam(defaultValue = "FULL") TodoView view,
+            @RequestParam(required = false) String fields,
+            @ParameterObject TodoFilter filter,
+            @Parameter(hidden = true) WebRequest webRequest
+    );
+
+    @Operation(summary = "Search TODOs", description = "Full-text search over title and description. " +
+            "q accepts web search syntax: quoted phrases, OR and -excluded words. Results are ordered by " +
+            "relevance, title matches ranking above description matches. Follow nextCursor for the next page")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Matching TODOs"),
+            @ApiResponse(responseCode = "400", description = "Blank query, invalid cursor or page size (1 to 1000)")
+    })
+    @GetMapping("/search")
+    PageResponse<TodoResponseDTO> searchTodos(
+            @RequestParam String q,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int perPage
+    );
+
+    @Operation(summary = "Import TODOs", description = "Loads a stream of TODOs sent as newline-delimited JSON " +
+            "or as CSV with a title,description,completed header. Each row is validated on its own and " +
+            "valid rows are loaded with COPY, one transaction per chunk of todo.import.chunk-size rows. " +
+            "Rejected rows are reported by line and each chunk by its line range, so a chunk that failed " +
+            "can be resent on its own")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Import finished, accepted and rejected rows counted"),
+            @ApiResponse(responseCode = "400", description = "Missing CSV header"),
+            @ApiResponse(responseCode = "415", description = "Unsupported content type")
+    })
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_NDJSON_VALUE, ImportFormat.TEXT_CSV_VALUE})
+    ImportResponseDTO importTodos(@RequestBody InputStream body,
+                                  @Parameter(hidden = true) @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType)
+            throws IOException;
+
+    @Operation(summary = "Export all TODOs", description = "Streams every TODO ordered by ID " +
+            "as newline-delimited JSON, one object per line")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "TODOs streamed")
+    })
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    StreamingResponseBody exportTodos(@Parameter(hidden = true) HttpServletResponse response);
+
+    @Operation(summary = "Get TODO changes since a token", description = "Returns TODOs created, updated or " +
+            "completed and IDs deleted after the since token, oldest change first, at most limit (up to 1000) " +
+            "at a time. Without since, every TODO is returned. Pass nextToken back as since; hasMore means " +
+            "another batch is ready right away")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Changes after the token"),
+            @ApiResponse(responseCode = "400", description = "Invalid token or limit"),
+            @ApiResponse(responseCode = "410", description = "Token older than the tombstone retention, sync from the start")
+    })
+    @GetMapping("/changes")
+    ChangesResponseDTO getChanges(
+            @RequestParam(required = false) String since,
+            @RequestParam(defaultValue = "500") int limit
     );
 
-    @Operation(summary = "Get a TODO by ID", description = "Returns a single TODO by its ID")
+    @Operation(summary = "Stream TODO changes", description = "Server-Sent Events stream of committed changes. " +
+            "Each event carries a JSON object with type CREATED, UPDATED, COMPLETED or DELETED, the TODO id and, " +
+            "except for deletes, the TODO itself. RESYNC means changes were not announced one by one and the " +
+            "client should reload. Clients that fall behind are disconnected and should reconnect")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Stream opened"),
+            @ApiResponse(responseCode = "503", description = "Too many subscribers on this node")
+    })
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    SseEmitter streamTodos();
+
+    @Operation(summary = "Get a TODO by ID", description = "Returns a single TODO by its ID " +
+            "with ETag and Last-Modified validators for If-None-Match / If-Modified-Since. " +
+            "fields lists the properties to return, e.g. id,title")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Found TODO"),
+            @ApiResponse(responseCode = "304", description = "TODO not modified"),
+            @ApiResponse(responseCode = "400", description = "Unknown field"),
             @ApiResponse(responseCode = "404", description = "TODO not found")
     })
     @GetMapping("/{id}")
-    TodoResponseDTO getTodo(@PathVariable Long id);
+    Object getTodo(@PathVariable Long id, @RequestParam(required = false) String fields,
+                   @Parameter(hidden = true) WebRequest webRequest);
 
-    @Operation(summary = "Update a TODO", description = "Updates a TODO by its ID")
+    @Operation(summary = "Update a TODO", description = "Updates a TODO by its ID. " +
+            "With If-Match the update only applies while the TODO still has that ETag")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "TODO updated"),
             @ApiResponse(responseCode = "404", description = "TODO not found"),
-            @ApiResponse(responseCode = "400", description = "Invalid input")
+            @ApiResponse(responseCode = "400", description = "Invalid input or too many IDs"),
+            @ApiResponse(responseCode = "412", description = "TODO changed since the If-Match ETag")
     })
     @PutMapping("/{id}")
-    TodoResponseDTO updateTodo(@PathVariable Long id, @Valid @RequestBody TodoRequestDTO request);
+    TodoResponseDTO updateTodo(@PathVariable Long id, @Valid @RequestBody TodoRequestDTO request,
+                               @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                               @Parameter(hidden = true) HttpServletResponse response);
 
     @Operation(summary = "Delete a TODO", description = "Deletes a TODO by its ID")
     @ApiResponses({
@@ -58,11 +176,33 @@ public interface TodoApi {
     @DeleteMapping("/{id}")
     void deleteTodo(@PathVariable Long id);
 
-    @Operation(summary = "Mark a TODO as completed", description = "Marks the TODO as completed by its ID")
+    @Operation(summary = "Mark a TODO as completed", description = "Marks the TODO as completed by its ID. " +
+            "With If-Match the change only applies while the TODO still has that ETag")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "TODO marked as completed"),
-            @ApiResponse(responseCode = "404", description = "TODO not found")
+            @ApiResponse(responseCode = "404", description = "TODO not found"),
+            @ApiResponse(responseCode = "412", description = "TODO changed since the If-Match ETag")
     })
     @PatchMapping("/{id}")
-    TodoResponseDTO markAsCompleted(@PathVariable Long id);
+    TodoResponseDTO markAsCompleted(@PathVariable Long id,
+                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                    @Parameter(hidden = true) HttpServletResponse response);
+
+    @Operation(summary = "Mark TODOs as completed in batch", description = "Marks all existing TODOs with the given IDs " +
+            "as completed in one statement and reports the IDs that were not found")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "TODOs marked as completed"),
+            @ApiResponse(responseCode = "400", description = "Invalid input or too many IDs")
+    })
+    @PatchMapping("/batch")
+    BatchOperationResponseDTO markAllAsCompleted(@Valid @RequestBody BatchIdsRequestDTO request);
+
+    @Operation(summary = "Delete TODOs in batch", description = "Deletes all existing TODOs with the given IDs " +
+            "in one statement and reports the IDs that were not found")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "TODOs deleted"),
+            @ApiResponse(responseCode = "400", description = "Invalid input or too many IDs")
+    })
+    @DeleteMapping("/batch")
+    BatchOperationResponseDTO deleteTodos(@Valid @RequestBody BatchIdsRequestDTO request);
 }
@@ -0,0 +1,42 @@
+package com.emobile.springtodo.writebehind;
+
+import com.emobile.springtodo.dto.response.TodoResponseDTO;
+
+import java.time.LocalDateTime;
+
+public record PendingWrite(
+        Long id,
+        boolean detailsChanged,
+        String title,
+        String description,
+        boolean completed,
+        LocalDateTime updatedAt) {
+
+    public static PendingWrite details(Long id, String title, String description, LocalDateTime updatedAt) {
+        return new PendingWrite(id, true, title, description, false, updatedAt);
+    }
+
+    public static PendingWrite completion(Long id, LocalDateTime updatedAt) {
+        return new PendingWrite(id, false, null, null, true, updatedAt);
+    }
+
+    public PendingWrite merge(PendingWrite newer) {
+        return new PendingWrite(
+                id,
+                detailsChanged || newer.detailsChanged,
+                newer.detailsChanged ? newer.title : title,
+                newer.detailsChanged ? newer.description : description,
+                completed || newer.completed,
+                updatedAt.isAfter(newer.updatedAt) ? updatedAt : newer.updatedAt);
+    }
+
+    public TodoResponseDTO applyTo(TodoResponseDTO todo) {
+        return new TodoResponseDTO(
+                todo.id(),
+                detailsChanged ? title : todo.title(),
+                detailsChanged ? description : todo.description(),
+                completed || todo.completed(),
+                todo.createdAt(),
+                todo.updatedAt() != null && todo.updatedAt().isAfter(updatedAt) ? todo.updatedAt() : updatedAt);
+    }
+}
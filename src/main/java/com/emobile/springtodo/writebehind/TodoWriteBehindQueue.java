@@ -0,0 +1,202 @@
+package com.emobile.springtodo.writebehind;
+
+import com.emobile.springtodo.cache.TodoCacheOperations;
+import com.emobile.springtodo.cache.TodoListVersion;
+import com.emobile.springtodo.dto.response.TodoResponseDTO;
+import com.emobile.springtodo.exception.ServiceUnavailableException;
+import com.emobile.springtodo.repository.TodoRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Slf4j
+@Component
+public class TodoWriteBehindQueue implements SmartLifecycle {
+
+    private final TodoRepository repository;
+
+    private final TodoCacheOperations cacheOperations;
+
+    private final TodoListVersion listVersion;
+
+    private final boolean enabled;
+
+    private final int maxPending;
+
+    private final int flushSize;
+
+    private final Duration flushInterval;
+
+    private final ConcurrentMap<Long, PendingWrite> pending = new ConcurrentHashMap<>();
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+
+    private final Timer flushTimer;
+
+    private final Counter flushFailures;
+
+    private volatile ScheduledExecutorService executor;
+
+    public TodoWriteBehindQueue(TodoRepository repository,
+                                TodoCacheOperations cacheOperations,
+                                TodoListVersion listVersion,
+                                MeterRegistry meterRegistry,
+                                @Value("${todo.write-behind.enabled:false}") boolean enabled,
+                                @Value("${todo.write-behind.max-pending:10000}") int maxPending,
+                                @Value("${todo.write-behind.flush-size:500}") int flushSize,
+                                @Value("${todo.write-behind.flush-interval:200ms}") Duration flushInterval) {
+        this.repository = repository;
+        this.cacheOperations = cacheOperations;
+        this.listVersion = listVersion;
+        this.enabled = enabled;
+        this.maxPending = maxPending;
+        this.flushSize = flushSize;
+        this.flushInterval = flushInterval;
+        Gauge.builder("todo.write-behind.pending", pending, ConcurrentMap::size)
+                .description("Todos with writes waiting to be flushed")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("todo.write-behind.flush")
+                .description("Time to flush one batch of coalesced writes")
+                .register(meterRegistry);
+        this.flushFailures = meterRegistry.counter("todo.write-behind.flush.failures");
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void enqueue(PendingWrite write) {
+        if (pending.size() >= maxPending && !pending.containsKey(write.id())) {
+            log.warn("Write-behind backlog is full ({}), flushing on the caller thread", pending.size());
+            flush();
+            if (pending.size() >= maxPending) {
+                throw new ServiceUnavailableException("Write-behind backlog is full");
+            }
+        }
+        pending.merge(write.id(), write, PendingWrite::merge);
+        if (!isRunning()) {
+            flush();
+        } else if (pending.size() >= flushSize && flushRequested.compareAndSet(false, true)) {
+            executor.execute(this::flush);
+        }
+    }
+
+    public TodoResponseDTO overlay(TodoResponseDTO todo) {
+        PendingWrite write = pending.get(todo.id());
+        return write != null ? write.applyTo(todo) : todo;
+    }
+
+    public void discard(Long id) {
+        pending.remove(id);
+    }
+
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    public void flush() {
+        flushLock.lock();
+        try {
+            flushRequested.set(false);
+            while (!pending.isEmpty()) {
+                List<PendingWrite> batch = drain();
+                if (!write(batch)) {
+                    return;
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+                .name("todo-write-behind")
+                .daemon(true)
+                .factory());
+        long intervalMillis = flushInterval.toMillis();
+        executor.scheduleWithFixedDelay(this::flush, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        log.info("Write-behind enabled: flush every {} or {} todos, backlog {}", flushInterval, flushSize, maxPending);
+    }
+
+    @Override
+    public void stop() {
+        ScheduledExecutorService current = executor;
+        if (current == null) {
+            return;
+        }
+        executor = null;
+        current.shutdown();
+        try {
+            current.awaitTermination(flushInterval.toMillis() * 10, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        log.info("Write-behind stopped, {} writes left unflushed", pending.size());
+    }
+
+    @Override
+    public boolean isRunning() {
+        return executor != null;
+    }
+
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    private List<PendingWrite> drain() {
+        List<PendingWrite> batch = new ArrayList<>(Math.min(flushSize, pending.size()));
+        Iterator<Long> ids = pending.keySet().iterator();
+        while (ids.hasNext() && batch.size() < flushSize) {
+            PendingWrite write = pending.remove(ids.next());
+            if (write != null) {
+                batch.add(write);
+            }
+        }
+        return batch;
+    }
+
+    private boolean write(List<PendingWrite> batch) {
+        try {
+            flushTimer.record(() -> repository.applyWrites(batch));
+        } catch (RuntimeException e) {
+            flushFailures.increment();
+            batch.forEach(write -> pending.merge(write.id(), write, (newer, older) -> older.merge(newer)));
+            log.error("Failed to flush {} pending writes, will retry", batch.size(), e);
+            return false;
+        }
+        try {
+            // Drop cached values that may have been built from a stale read; ids written again since keep theirs.
+            cacheOperations.evict(batch.stream().map(PendingWrite::id).filter(id -> !pending.containsKey(id)).toList());
+            listVersion.bump();
+        } catch (RuntimeException e) {
+            log.warn("Flushed {} writes but failed to invalidate caches: {}", batch.size(), e.getMessage());
+        }
+        return true;
+    }
+}
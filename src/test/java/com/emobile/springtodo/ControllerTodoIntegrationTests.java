@@ -1,5 +1,11 @@
 package com.emobile.springtodo;
 
+import com.emobile.springtodo.cache.TodoCacheOperations;
+import com.emobile.springtodo.cache.TodoIdFilter;
+import com.emobile.springtodo.cache.TodoListVersion;
+import com.emobile.springtodo.events.TodoTombstoneCompactor;
+import com.jayway.jsonpath.JsonPath;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.*;
 import org.skyscreamer.jsonassert.JSONAssert;
 import org.skyscreamer.jsonassert.JSONCompareMode;
@@ -7,6 +13,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
 import org.springframework.http.*;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.DynamicPropertyRegistry;
@@ -18,9 +25,18 @@ import org.testcontainers.containers.GenericContainer;
 import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -45,12 +61,34 @@ class ControllerTodoIntegrationTests {
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
+    @Autowired
+    private TodoListVersion listVersion;
+
+    @Autowired
+    private TodoIdFilter idFilter;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private TodoTombstoneCompactor tombstoneCompactor;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
 
     @BeforeEach
     void resetDb(TestInfo info) {
         if (info.getTags().contains("truncate")) {
             jdbcTemplate.execute("TRUNCATE TABLE todos");
         }
+        listVersion.bump();
+        // Fixtures reuse ids and bypass the service, so forget what earlier tests learned about them.
+        cacheManager.getCache(TodoCacheOperations.CACHE_NAME).clear();
+        cacheManager.getCache(TodoCacheOperations.MISSES_CACHE_NAME).clear();
+        idFilter.rebuild();
     }
 
     @DynamicPropertySource
@@ -100,6 +138,43 @@ class ControllerTodoIntegrationTests {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    @Tag("truncate")
+    @DisplayName("POST api/todo/batch - create todos in batch")
+    void createTodos_success() throws Exception{
+        String requestBody = """
+                [{"title":"Task1","description":"First","completed":false},
+                 {"title":"Task2","completed":true}]
+                """;
+        mockMvc.perform(post("/api/todo/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestBody))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.ids.length()").value(2));
+
+        mockMvc.perform(get("/api/todo?page=1&perPage=10"))
+                .andExpect(jsonPath("$.numberOfElements").value(2));
+    }
+
+    @Test
+    @DisplayName("Fail POST api/todo/batch - errors are reported per item")
+    void createTodos_shouldFailValidation() throws Exception{
+        String requestBody = """
+                [{"title":"Task1","completed":false},
+                 {"title":"","completed":false}]
+                """;
+        String expectedJson = """
+                {"errors":{"1":{"title":"must not be blank"}}}
+                """;
+        MvcResult result = mockMvc.perform(post("/api/todo/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestBody))
+                .andExpect(status().isBadRequest())
+                .andReturn();
+
+        JSONAssert.assertEquals(expectedJson, result.getResponse().getContentAsString(), JSONCompareMode.STRICT);
+    }
+
     @Test
     @DisplayName("GET /api/todo/{id} - get todo by Id")
     @Sql(scripts = "/sql/insert_todos.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
@@ -109,6 +184,31 @@ class ControllerTodoIntegrationTests {
             .andExpect(jsonPath("$.title").value("Test Task 1"));
     }
 
+    @Test
+    @DisplayName("GET /api/todo/{id} - cache hit is written from pre-rendered JSON")
+    @Sql(scripts = "/sql/insert_todos.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    void getTodoById_servedFromRenderedJson() throws Exception{
+        String loaded = mockMvc.perform(get("/api/todo/1"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        double served = meterRegistry.counter("todo.cache.json.served").count();
+        MvcResult hit = mockMvc.perform(get("/api/todo/1"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(header().string(HttpHeaders.CONTENT_LENGTH, String.valueOf(loaded.length())))
+                .andReturn();
+        assertThat(hit.getResponse().getContentAsString()).isEqualTo(loaded);
+        assertThat(meterRegistry.counter("todo.cache.json.served").count()).isEqualTo(served + 1);
+
+        mockMvc.perform(patch("/api/todo/1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.completed").value(true));
+        mockMvc.perform(get("/api/todo/1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.completed").value(true));
+    }
+
     @Test
     @Sql(scripts = "/sql/insert_todos.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
     @DisplayName("Fail GET /api/todo - Get todo by non-existent Id")
@@ -142,6 +242,196 @@ class ControllerTodoIntegrationTests {
                 .andExpect(status().isNoContent());
     }
 
+    @Test
+    @DisplayName("GET /api/todo/{id} - conditional get answers 304 for the current ETag")
+    @Sql(scripts = "/sql/insert_todos.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    void getTodoById_notModified() throws Exception{
+        MvcResult result = mockMvc.perform(get("/api/todo/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andReturn();
+        String etag = result.getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/todo/1").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    @DisplayName("PUT /api/todo/{id} - If-Match guards against lost updates")
+    @Sql(scripts = "/sql/insert_todos.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    void updateTodo_ifMatch() throws Exception{
+        String etag = mockMvc.perform(get("/api/todo/3"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        String request = """
+                {"title":"Updated Task", "description":"Task update", "completed":false}
+                """;
+
+        MvcResult updated = mockMvc.perform(put("/api/todo/3")
+                        .header(HttpHeaders.IF_MATCH, etag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(request))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertThat(updated.getResponse().getHeader(HttpHeaders.ETAG)).isNotEqualTo(etag);
+
+        mockMvc.perform(patch("/api/todo/3").header(HttpHeaders.IF_MATCH, etag))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(patch("/api/todo/3")
+                        .header(HttpHeaders.IF_MATCH, updated.getResponse().getHeader(HttpHeaders.ETAG)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.completed").value(true));
+    }
+
+    @Test
+    @DisplayName("GET /api/todo - unchanged page answers 304 until a write")
+    @Sql(scripts = "/sql/insert_todos.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    void getTodos_notModified() throws Exception{
+        String etag = mockMvc.perform(get("/api/todo?page=1&perPage=2"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/todo?page=1&perPage=2").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(delete("/api/todo/3"))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/todo?page=1&perPage=2").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("GET /actuator/metrics - service, repository, cache and Redis latency are published")
+    @Sql(scripts = "/sql/insert_todos.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    void metrics_published() throws Exception{
+        mockMvc.perform(get("/api/todo/1")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/todo?page=1&perPage=2")).andExpect(status().isOk());
+
+        mockMvc.perform(get("/actuator/metrics/todo.service").param("tag", "method:getById"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.availableTags[?(@.tag == 'exception')]").exists());
+        mockMvc.perform(get("/actuator/metrics/todo.repository").param("tag", "method:findById"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/actuator/metrics/todo.cache.load").param("tag", "cache:todos"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/actuator/metrics/todo.list.rows").param("tag", "query:offset"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/actuator/metrics/lettuce.command.completion"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("GET /api/todo/{id} - deleted todo is answered from the negative cache")
+    @Sql(scripts = "/sql/insert_todos.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    void getTodoById_deletedServedFromNegativeCache() throws Exception{
+        mockMvc.perform(delete("/api/todo/2"))
+                .andExpect(status().isNoContent());
+        jdbcTemplate.update("INSERT INTO todos (id, title) VALUES (2, 'Resurrected')");
+
+        mockMvc.perform(get("/api/todo/2"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/todo/1"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @Tag("truncate")
+    @DisplayName("GET /api/todo/{id} - todo committed after a higher id is not filtered out")
+    void getTodoById_committedAfterHigherId() throws Exception{
+        long lower;
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery("SELECT nextval(pg_get_serial_sequence('todos', 'id'))")) {
+                rs.next();
+                lower = rs.getLong(1);
+            }
+            Long higher = jdbcTemplate.queryForObject(
+                    "INSERT INTO todos (title) VALUES ('Fast Task') RETURNING id", Long.class);
+            assertThat(higher).isGreaterThan(lower);
+
+            idFilter.rebuild();
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate("INSERT INTO todos (id, title) VALUES (" + lower + ", 'Slow Task')");
+            }
+            connection.commit();
+        }
+
+        mockMvc.perform(get("/api/todo/" + lower))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("Slow Task"));
+        idFilter.rebuild();
+        assertThat(idFilter.covers(lower)).isTrue();
+        assertThat(idFilter.isDefinitelyAbsent(lower)).isFalse();
+    }
+
+    @Test
+    @DisplayName("GET /api/todo/changes - delta sync in batches, expired token is gone")
+    @Sql(scripts = "/sql/insert_todos.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    void getChanges_sinceToken() throws Exception{
+        String first = mockMvc.perform(get("/api/todo/changes").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changed.length()").value(2))
+                .andExpect(jsonPath("$.hasMore").value(true))
+                .andReturn().getResponse().getContentAsString();
+        String rest = mockMvc.perform(get("/api/todo/changes").param("since", JsonPath.<String>read(first, "$.nextToken")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changed.length()").value(1))
+                .andExpect(jsonPath("$.hasMore").value(false))
+                .andReturn().getResponse().getContentAsString();
+        String token = JsonPath.read(rest, "$.nextToken");
+
+        mockMvc.perform(patch("/api/todo/1")).andExpect(status().isOk());
+        mockMvc.perform(delete("/api/todo/2")).andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/api/todo/changes").param("since", token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changed.length()").value(1))
+                .andExpect(jsonPath("$.changed[0].id").value(1))
+                .andExpect(jsonPath("$.changed[0].completed").value(true))
+                .andExpect(jsonPath("$.deleted.length()").value(1))
+                .andExpect(jsonPath("$.deleted[0]").value(2));
+
+        jdbcTemplate.update("UPDATE todo_tombstones SET deleted_at = deleted_at - INTERVAL '365 days'");
+        tombstoneCompactor.compact();
+        mockMvc.perform(get("/api/todo/changes").param("since", token))
+                .andExpect(status().isGone());
+    }
+
+    @Test
+    @Tag("truncate")
+    @DisplayName("GET /api/todo/stream - committed changes are pushed to subscribers")
+    void streamTodos_pushesChanges() throws Exception{
+        MvcResult stream = mockMvc.perform(get("/api/todo/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String created = mockMvc.perform(post("/api/todo")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"Streamed\",\"completed\":false}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        Integer id = JsonPath.read(created, "$.id");
+        mockMvc.perform(patch("/api/todo/" + id))
+                .andExpect(status().isOk());
+
+        String events = awaitContent(stream, "\"COMPLETED\"");
+        assertThat(events).contains("\"type\":\"CREATED\",\"id\":" + id);
+        assertThat(events).contains("\"type\":\"COMPLETED\",\"id\":" + id);
+        assertThat(events).contains("\"title\":\"Streamed\"");
+        assertThat(events.indexOf("CREATED")).isLessThan(events.indexOf("COMPLETED"));
+    }
+
+    private static String awaitContent(MvcResult result, String expected) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        String content = result.getResponse().getContentAsString();
+        while (!content.contains(expected) && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+            content = result.getResponse().getContentAsString();
+        }
+        return content;
+    }
+
     @Test
     @DisplayName("GET /api/todo - Get todo with pagination")
     @Sql(scripts = "/sql/insert_todos.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
@@ -149,10 +439,230 @@ class ControllerTodoIntegrationTests {
         mockMvc.perform(get("/api/todo?page=1&perPage=2"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.content.length()").value(2))
-                .andExpect(jsonPath("$.content[0].title").value("Test Task 1"))
+                .andExpect(jsonPath("$.content[0].title").value("Test Task 3"))
                 .andExpect(jsonPath("$.content[1].title").value("Test Task 2"));
     }
 
+    @Test
+    @DisplayName("GET /api/todo - Get todo with maintained count")
+    @Sql(scripts = "/sql/insert_todos.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    void getTodosWithCount_success() throws Exception{
+        mockMvc.perform(get("/api/todo?page=1&perPage=2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.numberOfElements").value(3));
+
+        mockMvc.perform(get("/api/todo?page=1&perPage=2&count=NONE"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(2))
+                .andExpect(jsonPath("$.numberOfElements").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("GET /api/todo?view=&fields= - Get summaries and projected todos")
+    @Sql(scripts = "/sql/insert_todos.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    void getTodosProjected_success() throws Exception{
+        mockMvc.perform(get("/api/todo?page=1&perPage=2&view=SUMMARY"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].title").value("Test Task 3"))
+                .andExpect(jsonPath("$.content[0].completed").exists())
+                .andExpect(jsonPath("$.content[0].description").doesNotExist())
+                .andExpect(jsonPath("$.numberOfElements").value(3));
+
+        mockMvc.perform(get("/api/todo?cursor=&perPage=2&fields=id,title"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].title").value("Test Task 3"))
+                .andExpect(jsonPath("$.content[0].id").exists())
+                .andExpect(jsonPath("$.content[0].updatedAt").doesNotExist())
+                .andExpect(jsonPath("$.nextCursor").exists());
+
+        mockMvc.perform(get("/api/todo/1?fields=title,completed"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("Test Task 1"))
+                .andExpect(jsonPath("$.completed").value(false))
+                .andExpect(jsonPath("$.id").doesNotExist())
+                .andExpect(header().exists(HttpHeaders.ETAG));
+
+        mockMvc.perform(get("/api/todo?fields=id,secret"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("GET /api/todo?completed= - Get todo filtered in SQL")
+    @Sql(scripts = "/sql/insert_todos.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    void getTodosFiltered_success() throws Exception{
+        mockMvc.perform(get("/api/todo?completed=false"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(2))
+                .andExpect(jsonPath("$.numberOfElements").value(2));
+
+        mockMvc.perform(get("/api/todo?cursor=&completed=true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.content[0].title").value("Test Task 2"));
+
+        mockMvc.perform(get("/api/todo").param("createdFrom", "2999-01-01T00:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(0))
+                .andExpect(jsonPath("$.numberOfElements").value(0));
+
+        mockMvc.perform(get("/api/todo").param("updatedTo", "yesterday"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Tag("truncate")
+    @DisplayName("GET /api/todo - Cached page is replaced after a write")
+    void getTodosCachedPage_refreshedAfterCreate() throws Exception{
+        mockMvc.perform(get("/api/todo?page=1&perPage=2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.numberOfElements").value(0));
+
+        mockMvc.perform(post("/api/todo")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\": \"Cached\", \"description\": \"Page\"}"))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/api/todo?page=1&perPage=2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].title").value("Cached"))
+                .andExpect(jsonPath("$.numberOfElements").value(1));
+    }
+
+    @Test
+    @DisplayName("GET /api/todo?cursor= - Get todo with cursor pagination")
+    @Sql(scripts = "/sql/insert_todos.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    void getTodosWithCursor_success() throws Exception{
+        MvcResult firstPage = mockMvc.perform(get("/api/todo?cursor=&perPage=2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(2))
+                .andExpect(jsonPath("$.content[0].title").value("Test Task 3"))
+                .andExpect(jsonPath("$.content[1].title").value("Test Task 2"))
+                .andExpect(jsonPath("$.numberOfElements").doesNotExist())
+                .andReturn();
+
+        String nextCursor = JsonPath.read(firstPage.getResponse().getContentAsString(), "$.nextCursor");
+
+        mockMvc.perform(get("/api/todo").param("cursor", nextCursor).param("perPage", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.content[0].title").value("Test Task 1"))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("GET /api/todo/search - ranked search with cursor")
+    @Sql(scripts = "/sql/insert_todos.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    void searchTodos_success() throws Exception{
+        MvcResult first = mockMvc.perform(get("/api/todo/search")
+                        .param("q", "task")
+                        .param("perPage", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(2))
+                .andExpect(jsonPath("$.nextCursor").isNotEmpty())
+                .andReturn();
+
+        String nextCursor = JsonPath.read(first.getResponse().getContentAsString(), "$.nextCursor");
+        mockMvc.perform(get("/api/todo/search")
+                        .param("q", "task")
+                        .param("cursor", nextCursor)
+                        .param("perPage", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+
+        mockMvc.perform(get("/api/todo/search").param("q", "\"Task 2\""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.content[0].id").value(2));
+
+        mockMvc.perform(get("/api/todo/search").param("q", " "))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Tag("truncate")
+    @DisplayName("POST /api/todo/import - Import NDJSON and report rejected lines")
+    void importTodosNdjson_success() throws Exception{
+        String body = """
+                {"title": "Imported 1", "description": "From NDJSON"}
+                {"title": "", "description": "Blank title"}
+
+                {"title": "Imported 2", "completed": true}
+                {not json
+                null
+                """;
+
+        mockMvc.perform(post("/api/todo/import")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accepted").value(2))
+                .andExpect(jsonPath("$.rejected").value(3))
+                .andExpect(jsonPath("$.errors.2.title").exists())
+                .andExpect(jsonPath("$.errors.5.line").value("malformed JSON"))
+                .andExpect(jsonPath("$.errors.6.line").value("must be a JSON object"))
+                .andExpect(jsonPath("$.chunks.length()").value(1))
+                .andExpect(jsonPath("$.chunks[0].firstLine").value(1))
+                .andExpect(jsonPath("$.chunks[0].accepted").value(2));
+
+        mockMvc.perform(get("/api/todo?page=1&perPage=1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.numberOfElements").value(2));
+    }
+
+    @Test
+    @Tag("truncate")
+    @DisplayName("POST /api/todo/import - Import CSV")
+    void importTodosCsv_success() throws Exception{
+        String body = """
+                title,description,completed
+                "Buy milk, bread",Groceries,true
+                Call mom,,false
+                Broken,row,maybe
+                "Stray"quote,row,false
+                Water plants,,false
+                """;
+
+        mockMvc.perform(post("/api/todo/import")
+                        .contentType("text/csv")
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accepted").value(3))
+                .andExpect(jsonPath("$.rejected").value(2))
+                .andExpect(jsonPath("$.errors.4.completed").exists())
+                .andExpect(jsonPath("$.errors.5.line").value("malformed CSV"));
+
+        Assertions.assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM todos WHERE title = 'Buy milk, bread' AND completed", Integer.class));
+    }
+
+    @Test
+    @DisplayName("GET /api/todo/export - Stream all todos as NDJSON")
+    @Sql(scripts = "/sql/insert_todos.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    void exportTodos_success() throws Exception{
+        MvcResult result = mockMvc.perform(get("/api/todo/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        Assertions.assertEquals(3, lines.length);
+        JSONAssert.assertEquals("{\"id\":1,\"title\":\"Test Task 1\",\"completed\":false}",
+                lines[0], JSONCompareMode.LENIENT);
+        JSONAssert.assertEquals("{\"id\":3,\"title\":\"Test Task 3\"}", lines[2], JSONCompareMode.LENIENT);
+    }
+
+    @Test
+    @DisplayName("Fail GET /api/todo - Get todo with malformed cursor")
+    void getTodosWithCursor_FailedBadRequest() throws Exception{
+        mockMvc.perform(get("/api/todo?cursor=broken"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     @Sql(scripts = "/sql/insert_todos.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
     @DisplayName("PATCH /api/todo/{id} - mark todo as completed")
@@ -162,4 +672,47 @@ class ControllerTodoIntegrationTests {
         .andExpect(jsonPath("$.completed").value(true))
         .andExpect(jsonPath("$.title").value("Test Task 1"));
     }
+
+    @Test
+    @Sql(scripts = "/sql/insert_todos.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    @DisplayName("PATCH /api/todo/batch - mark todos as completed in batch")
+    void markAllAsCompleted_success() throws Exception{
+        String requestBody = """
+                {"ids":[1,3,999]}
+                """;
+        String expectedJson = """
+                {"processed":[1,3],"missing":[999]}
+                """;
+        MvcResult result = mockMvc.perform(patch("/api/todo/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestBody))
+                .andExpect(status().isOk())
+                .andReturn();
+        JSONAssert.assertEquals(expectedJson, result.getResponse().getContentAsString(), JSONCompareMode.NON_EXTENSIBLE);
+
+        mockMvc.perform(get("/api/todo/3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.completed").value(true));
+    }
+
+    @Test
+    @Sql(scripts = "/sql/insert_todos.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+    @DisplayName("DELETE /api/todo/batch - delete todos in batch")
+    void deleteTodos_success() throws Exception{
+        String requestBody = """
+                {"ids":[2,999]}
+                """;
+        String expectedJson = """
+                {"processed":[2],"missing":[999]}
+                """;
+        MvcResult result = mockMvc.perform(delete("/api/todo/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestBody))
+                .andExpect(status().isOk())
+                .andReturn();
+        JSONAssert.assertEquals(expectedJson, result.getResponse().getContentAsString(), JSONCompareMode.STRICT);
+
+        mockMvc.perform(get("/api/todo/2"))
+                .andExpect(status().isNotFound());
+    }
 }
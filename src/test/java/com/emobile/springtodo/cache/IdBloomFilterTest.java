@@ -0,0 +1,31 @@
+package com.emobile.springtodo.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IdBloomFilterTest {
+
+    @Test
+    @DisplayName("Every added id is reported as possibly present")
+    void noFalseNegatives() {
+        IdBloomFilter filter = new IdBloomFilter(10_000, 0.01);
+        LongStream.rangeClosed(1, 10_000).forEach(filter::add);
+
+        assertThat(LongStream.rangeClosed(1, 10_000).allMatch(filter::mightContain)).isTrue();
+    }
+
+    @Test
+    @DisplayName("False positive rate stays near the configured target")
+    void falsePositiveRate() {
+        IdBloomFilter filter = new IdBloomFilter(10_000, 0.01);
+        LongStream.rangeClosed(1, 10_000).forEach(filter::add);
+
+        long falsePositives = LongStream.rangeClosed(10_001, 110_000).filter(filter::mightContain).count();
+
+        assertThat(falsePositives).isLessThan(2_000);
+    }
+}
@@ -0,0 +1,54 @@
+package com.emobile.springtodo.cache;
+
+import com.emobile.springtodo.config.RedisConfig;
+import com.emobile.springtodo.dto.response.TodoResponseDTO;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TodoResponseRedisSerializerTest {
+
+    private final TodoResponseRedisSerializer serializer = new TodoResponseRedisSerializer();
+
+    private final TodoResponseDTO todo = new TodoResponseDTO(
+            123_456L, "Позвонить в банк", "Уточнить лимит по карте", true,
+            LocalDateTime.of(2024, 11, 3, 14, 25, 36, 123_456_789),
+            LocalDateTime.of(1969, 12, 31, 23, 59, 59, 1));
+
+    @Test
+    @DisplayName("Round-trip todo to the exact value")
+    void roundTrip() {
+        assertThat(serializer.deserialize(serializer.serialize(todo))).isEqualTo(todo);
+
+        TodoResponseDTO sparse = new TodoResponseDTO(null, "Title", null, false, null, null);
+        assertThat(serializer.deserialize(serializer.serialize(sparse))).isEqualTo(sparse);
+    }
+
+    @Test
+    @DisplayName("Binary value is much smaller than the JSON one")
+    void smallerThanJson() {
+        Jackson2JsonRedisSerializer<TodoResponseDTO> json =
+                new Jackson2JsonRedisSerializer<>(new RedisConfig().objectMapper(), TodoResponseDTO.class);
+
+        assertThat(serializer.serialize(todo).length).isLessThan(json.serialize(todo).length / 2);
+    }
+
+    @Test
+    @DisplayName("Read values in an unknown format as a miss and reject truncated ones")
+    void unknownAndTruncated() {
+        Jackson2JsonRedisSerializer<TodoResponseDTO> json =
+                new Jackson2JsonRedisSerializer<>(new RedisConfig().objectMapper(), TodoResponseDTO.class);
+        byte[] bytes = serializer.serialize(todo);
+
+        assertThat(serializer.deserialize(json.serialize(todo))).isNull();
+        assertThatThrownBy(() -> serializer.deserialize(Arrays.copyOf(bytes, bytes.length - 3)))
+                .isInstanceOf(SerializationException.class);
+    }
+}
@@ -0,0 +1,219 @@
+package com.emobile.springtodo.cache;
+
+import com.emobile.springtodo.dto.response.TodoResponseDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TwoLevelCacheManagerTest {
+
+    @Mock
+    private RedisCacheManager redisCacheManager;
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    private final ConcurrentMapCache redisCache = new ConcurrentMapCache("todos");
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final TodoJsonCache jsonCache = new TodoJsonCache(
+            new ObjectMapper().registerModule(new JavaTimeModule()), true, meterRegistry);
+
+    private TwoLevelCacheManager cacheManager;
+
+    @BeforeEach
+    void setUp() {
+        when(redisCacheManager.getCache("todos")).thenReturn(redisCache);
+        cacheManager = new TwoLevelCacheManager(redisCacheManager, redisTemplate, meterRegistry, jsonCache,
+                true, 100, Duration.ofMinutes(1), Duration.ofSeconds(2), Duration.ofMillis(5),
+                Set.of(TodoListVersion.CACHE_NAME));
+    }
+
+    @Test
+    @DisplayName("Second read is served from L1")
+    void localHit() {
+        redisCache.put(1L, "value");
+        Cache cache = cacheManager.getCache("todos");
+
+        assertThat(cache.get(1L).get()).isEqualTo("value");
+        redisCache.evict(1L);
+        assertThat(cache.get(1L).get()).isEqualTo("value");
+
+        assertThat(requests("l1", "hit")).isEqualTo(1);
+        assertThat(requests("l2", "hit")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Todos entering L1 are rendered to JSON once, a replaced todo gets fresh bytes")
+    void localValuesRendered() {
+        TodoResponseDTO todo = new TodoResponseDTO(1L, "Title", "Description", false, null, null);
+        redisCache.put(1L, todo);
+        Cache cache = cacheManager.getCache("todos");
+
+        TodoResponseDTO cached = cache.get(1L, TodoResponseDTO.class);
+        assertThat(new String(jsonCache.get(cached), StandardCharsets.UTF_8)).contains("\"title\":\"Title\"");
+
+        TodoResponseDTO updated = new TodoResponseDTO(1L, "Renamed", "Description", true, null, null);
+        cache.put(1L, updated);
+        assertThat(new String(jsonCache.get(cache.get(1L, TodoResponseDTO.class)), StandardCharsets.UTF_8))
+                .contains("\"title\":\"Renamed\"");
+        assertThat(jsonCache.get(new TodoResponseDTO(1L, "Renamed", "Description", true, null, null))).isNull();
+    }
+
+    @Test
+    @DisplayName("Evict clears both levels and notifies other nodes")
+    void evictPublishesInvalidation() {
+        Cache cache = cacheManager.getCache("todos");
+        cache.put(1L, "value");
+        clearInvocations(redisTemplate);
+
+        cache.evict(1L);
+
+        assertThat(cache.get(1L)).isNull();
+        verify(redisTemplate).convertAndSend(eq(TwoLevelCacheManager.INVALIDATION_CHANNEL), anyString());
+    }
+
+    @Test
+    @DisplayName("Filling a versioned page publishes nothing, replacing a todo notifies other nodes")
+    void pageFillNotPublished() {
+        when(redisCacheManager.getCache(TodoListVersion.CACHE_NAME))
+                .thenReturn(new ConcurrentMapCache(TodoListVersion.CACHE_NAME));
+        Cache pages = cacheManager.getCache(TodoListVersion.CACHE_NAME);
+
+        pages.put("7:1:10", "page");
+
+        assertThat(pages.get("7:1:10").get()).isEqualTo("page");
+        verify(redisTemplate, never()).convertAndSend(anyString(), anyString());
+
+        cacheManager.getCache("todos").put(1L, "value");
+        verify(redisTemplate).convertAndSend(eq(TwoLevelCacheManager.INVALIDATION_CHANNEL), anyString());
+    }
+
+    @Test
+    @DisplayName("Invalidation from another node evicts L1 only")
+    void remoteInvalidation() {
+        Cache cache = cacheManager.getCache("todos");
+        cache.put(1L, "value");
+        redisCache.put(1L, "updated");
+
+        cacheManager.onInvalidation("other-node\ntodos\n1");
+
+        assertThat(cache.get(1L).get()).isEqualTo("updated");
+    }
+
+    @Test
+    @DisplayName("Own invalidation messages are ignored")
+    void ownInvalidationIgnored() {
+        Cache cache = cacheManager.getCache("todos");
+        cache.put(1L, "value");
+        redisCache.put(1L, "updated");
+
+        String message = new String(cacheManager.invalidationMessage("todos", List.of(1L)), StandardCharsets.UTF_8);
+        cacheManager.onInvalidation(message);
+
+        assertThat(cache.get(1L).get()).isEqualTo("value");
+    }
+
+    @Test
+    @DisplayName("Concurrent misses on one node share a single load")
+    void concurrentMissesCoalesced() throws Exception {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(true);
+        Cache cache = cacheManager.getCache("todos");
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> cache.get(1L, () -> {
+            loads.incrementAndGet();
+            loading.countDown();
+            release.await();
+            return "value";
+        }));
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<String> second = CompletableFuture.supplyAsync(() -> cache.get(1L, () -> {
+            loads.incrementAndGet();
+            return "other";
+        }));
+        while (coalesced("local") == 0 && !second.isDone()) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("value");
+        assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo("value");
+        assertThat(loads).hasValue(1);
+        assertThat(coalesced("local")).isEqualTo(1);
+        assertThat(meterRegistry.get("todo.cache.load").tag("cache", "todos").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("todo.cache.puts").tag("cache", "todos").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Miss waits for the node holding the lease instead of loading")
+    void leaseHeldElsewhere() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenAnswer(invocation -> {
+            redisCache.put(1L, "remote");
+            return false;
+        });
+        Cache cache = cacheManager.getCache("todos");
+
+        String value = cache.get(1L, () -> "loaded");
+
+        assertThat(value).isEqualTo("remote");
+        assertThat(coalesced("cluster")).isEqualTo(1);
+        verify(redisTemplate, never()).execute(any(), any(List.class), any());
+    }
+
+    private double coalesced(String scope) {
+        return meterRegistry.get("todo.cache.coalesced")
+                .tag("cache", "todos")
+                .tag("scope", scope)
+                .counter()
+                .count();
+    }
+
+    private double requests(String level, String result) {
+        return meterRegistry.get("todo.cache.requests")
+                .tag("cache", "todos")
+                .tag("level", level)
+                .tag("result", result)
+                .counter()
+                .count();
+    }
+}
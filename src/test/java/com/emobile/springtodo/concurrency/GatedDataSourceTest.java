@@ -0,0 +1,62 @@
+package com.emobile.springtodo.concurrency;
+
+import com.emobile.springtodo.exception.ServiceUnavailableException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class GatedDataSourceTest {
+
+    private final DataSource target = mock(DataSource.class);
+
+    private final ConcurrencyGate gate = new ConcurrencyGate("db", 1, Duration.ofMillis(10));
+
+    private final GatedDataSource dataSource = new GatedDataSource(target, gate);
+
+    @Test
+    @DisplayName("Connection holds a permit until it is closed")
+    void permitReleasedOnClose() throws SQLException {
+        Connection connection = mock(Connection.class);
+        when(target.getConnection()).thenReturn(connection);
+
+        Connection gated = dataSource.getConnection();
+        assertThat(gate.availablePermits()).isZero();
+
+        gated.close();
+        gated.close();
+
+        assertThat(gate.availablePermits()).isEqualTo(1);
+        verify(connection, times(2)).close();
+    }
+
+    @Test
+    @DisplayName("Reject when no permit frees up in time")
+    void rejectWhenExhausted() throws SQLException {
+        when(target.getConnection()).thenReturn(mock(Connection.class));
+
+        dataSource.getConnection();
+
+        assertThatThrownBy(dataSource::getConnection).isInstanceOf(ServiceUnavailableException.class);
+    }
+
+    @Test
+    @DisplayName("Release the permit when the pool fails")
+    void permitReleasedOnFailure() throws SQLException {
+        when(target.getConnection()).thenThrow(new SQLException("pool down"));
+
+        assertThatThrownBy(dataSource::getConnection).isInstanceOf(SQLException.class);
+
+        assertThat(gate.availablePermits()).isEqualTo(1);
+    }
+}
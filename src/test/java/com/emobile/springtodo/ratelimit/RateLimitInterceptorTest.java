@@ -0,0 +1,95 @@
+package com.emobile.springtodo.ratelimit;
+
+import com.emobile.springtodo.exception.ServiceUnavailableException;
+import com.emobile.springtodo.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RateLimitInterceptorTest {
+
+    private static final RateLimit READ_LIMIT = new RateLimit(3, 1);
+
+    private static final RateLimit WRITE_LIMIT = new RateLimit(1, 0.5);
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final HandlerMethod handler = mock(HandlerMethod.class);
+
+    private final RateLimiter rateLimiter = new LocalRateLimiter(100, Duration.ofMinutes(10), clock::get);
+
+    @Test
+    @DisplayName("A bucket allows a burst up to capacity, then reports the wait until it refills")
+    void bucketRefills() {
+        assertThat(rateLimiter.tryAcquire("a", READ_LIMIT)).isZero();
+        assertThat(rateLimiter.tryAcquire("a", READ_LIMIT)).isZero();
+        assertThat(rateLimiter.tryAcquire("a", READ_LIMIT)).isZero();
+        assertThat(rateLimiter.tryAcquire("a", READ_LIMIT)).isEqualTo(1000);
+        assertThat(rateLimiter.tryAcquire("b", READ_LIMIT)).isZero();
+
+        clock.addAndGet(Duration.ofMillis(400).toNanos());
+        assertThat(rateLimiter.tryAcquire("a", READ_LIMIT)).isEqualTo(600);
+
+        clock.addAndGet(Duration.ofMillis(600).toNanos());
+        assertThat(rateLimiter.tryAcquire("a", READ_LIMIT)).isZero();
+    }
+
+    @Test
+    @DisplayName("Reads and writes draw on separate budgets and rejections are counted by route")
+    void separateBudgets() {
+        RateLimitInterceptor interceptor = new RateLimitInterceptor(rateLimiter, READ_LIMIT, WRITE_LIMIT,
+                "X-Client-Id", null, meterRegistry);
+
+        assertThat(interceptor.preHandle(request("POST", "alice"), new MockHttpServletResponse(), handler)).isTrue();
+        assertThatThrownBy(() -> interceptor.preHandle(request("POST", "alice"), new MockHttpServletResponse(), handler))
+                .isInstanceOf(TooManyRequestsException.class)
+                .extracting(ex -> ((TooManyRequestsException) ex).getRetryAfter())
+                .isEqualTo(Duration.ofSeconds(2));
+        assertThat(interceptor.preHandle(request("GET", "alice"), new MockHttpServletResponse(), handler)).isTrue();
+        assertThat(interceptor.preHandle(request("POST", "bob"), new MockHttpServletResponse(), handler)).isTrue();
+
+        assertThat(meterRegistry.get("todo.ratelimit.rejected")
+                .tag("method", "POST")
+                .tag("route", "/api/todo")
+                .tag("reason", "write-limit")
+                .counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Requests are shed with 503 while the pools are saturated")
+    void shedsWhenOverloaded() {
+        LoadShedder loadShedder = mock(LoadShedder.class);
+        when(loadShedder.isOverloaded()).thenReturn(true);
+        when(loadShedder.retryAfter()).thenReturn(Duration.ofSeconds(1));
+        RateLimitInterceptor interceptor = new RateLimitInterceptor(rateLimiter, READ_LIMIT, WRITE_LIMIT,
+                "", loadShedder, meterRegistry);
+
+        assertThatThrownBy(() -> interceptor.preHandle(request("GET", null), new MockHttpServletResponse(), handler))
+                .isInstanceOf(ServiceUnavailableException.class);
+        assertThat(meterRegistry.get("todo.ratelimit.rejected").tag("reason", "overload").counter().count())
+                .isEqualTo(1);
+    }
+
+    private static MockHttpServletRequest request(String method, String client) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, "/api/todo");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/todo");
+        if (client != null) {
+            request.addHeader("X-Client-Id", client);
+        }
+        return request;
+    }
+}
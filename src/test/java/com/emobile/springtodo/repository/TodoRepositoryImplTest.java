@@ -1,6 +1,14 @@
 package com.emobile.springtodo.repository;
 
+import com.emobile.springtodo.dto.request.TodoField;
+import com.emobile.springtodo.dto.request.TodoFilter;
+import com.emobile.springtodo.entity.TodoChange;
 import com.emobile.springtodo.entity.TodoEntity;
+import com.emobile.springtodo.entity.TodoSearchHit;
+import com.emobile.springtodo.pagination.ChangeToken;
+import com.emobile.springtodo.pagination.SearchCursor;
+import com.emobile.springtodo.pagination.TodoCursor;
+import com.emobile.springtodo.writebehind.PendingWrite;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -8,13 +16,20 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Set;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.*;
@@ -43,6 +58,9 @@ class TodoRepositoryImplTest {
     @Autowired
     TodoRepository todoRepository;
 
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
     TodoEntity todo;
 
     @BeforeEach
@@ -73,10 +91,8 @@ class TodoRepositoryImplTest {
     void update() {
         todoRepository.save(todo);
 
-        todo.setTitle("Updated Title");
-        todo.setCompleted(true);
-
-        todoRepository.update(todo);
+        todoRepository.updateDetails(todo.getId(), "Updated Title", todo.getDescription(), LocalDateTime.now(), null);
+        todoRepository.markAsCompleted(todo.getId(), LocalDateTime.now(), null);
         log.info("Todo update");
 
         Optional<TodoEntity> updated = todoRepository.findById(todo.getId());
@@ -85,15 +101,58 @@ class TodoRepositoryImplTest {
         assertThat(updated.get().isCompleted()).isTrue();
     }
 
+    @Test
+    @DisplayName("Update todo details and mark as completed in one statement")
+    void updateDetailsAndMarkAsCompleted() {
+        todoRepository.save(todo);
+
+        Optional<TodoEntity> updated = todoRepository.updateDetails(
+                todo.getId(), "Updated Title", "Updated Description", LocalDateTime.now(), null);
+        assertThat(updated).hasValueSatisfying(entity -> {
+            assertThat(entity.getTitle()).isEqualTo("Updated Title");
+            assertThat(entity.isCompleted()).isFalse();
+        });
+
+        LocalDateTime seen = updated.get().getUpdatedAt();
+        Optional<TodoEntity> completed = todoRepository.markAsCompleted(todo.getId(), LocalDateTime.now(), seen);
+        assertThat(completed).hasValueSatisfying(entity -> assertThat(entity.isCompleted()).isTrue());
+
+        assertThat(todoRepository.updateDetails(todo.getId(), "Stale", null, LocalDateTime.now(), seen)).isNotPresent();
+        assertThat(todoRepository.markAsCompleted(todo.getId(), LocalDateTime.now(), seen)).isNotPresent();
+        assertThat(todoRepository.updateDetails(9999L, "Title", null, LocalDateTime.now(), null)).isNotPresent();
+        assertThat(todoRepository.markAsCompleted(9999L, LocalDateTime.now(), null)).isNotPresent();
+    }
+
+    @Test
+    @DisplayName("Apply coalesced writes without touching unchanged fields")
+    void applyWrites() {
+        todoRepository.save(todo);
+        LocalDateTime later = todo.getUpdatedAt().plusMinutes(1).truncatedTo(ChronoUnit.MICROS);
+
+        todoRepository.applyWrites(List.of(PendingWrite.completion(todo.getId(), later)));
+
+        TodoEntity completed = todoRepository.findById(todo.getId()).orElseThrow();
+        assertThat(completed.getTitle()).isEqualTo(todo.getTitle());
+        assertThat(completed.isCompleted()).isTrue();
+
+        todoRepository.applyWrites(List.of(PendingWrite.details(todo.getId(), "Edited", "Edited too", todo.getUpdatedAt())));
+
+        TodoEntity edited = todoRepository.findById(todo.getId()).orElseThrow();
+        assertThat(edited.getTitle()).isEqualTo("Edited");
+        assertThat(edited.isCompleted()).isTrue();
+        assertThat(edited.getUpdatedAt()).isEqualTo(later);
+    }
+
     @Test
     @DisplayName("Delete todo")
     void deleteById() {
         todoRepository.save(todo);
 
-        todoRepository.deleteById(todo.getId());
+        assertThat(todoRepository.deleteById(todo.getId())).isTrue();
 
         Optional<TodoEntity> deleted = todoRepository.findById(todo.getId());
         assertThat(deleted).isNotPresent();
+        assertThat(todoRepository.deleteById(todo.getId())).isFalse();
     }
 
     @Test
@@ -107,4 +166,176 @@ class TodoRepositoryImplTest {
         boolean notExists = todoRepository.existsById(9999L);
         assertThat(notExists).isFalse();
     }
+
+    @Test
+    @DisplayName("Find todos after cursor")
+    void findAllAfter() {
+        todoRepository.save(todo);
+        TodoEntity second = new TodoEntity();
+        second.setTitle("Second Title");
+        todoRepository.save(second);
+
+        List<TodoEntity> firstPage = todoRepository.findAllAfter(TodoFilter.NONE, null, 1, TodoField.ALL);
+        assertThat(firstPage).extracting(TodoEntity::getId).containsExactly(second.getId());
+
+        List<TodoEntity> secondPage = todoRepository.findAllAfter(TodoFilter.NONE, TodoCursor.of(firstPage.get(0)), 1, TodoField.ALL);
+        assertThat(secondPage).extracting(TodoEntity::getId).containsExactly(todo.getId());
+    }
+
+    @Test
+    @DisplayName("Find todos reading only the requested columns")
+    void findAllProjected() {
+        todoRepository.save(todo);
+
+        TodoEntity loaded = todoRepository.findAll(TodoFilter.NONE, PageRequest.of(0, 1), Set.of(TodoField.TITLE))
+                .get(0);
+
+        assertThat(loaded.getId()).isEqualTo(todo.getId());
+        assertThat(loaded.getTitle()).isEqualTo(todo.getTitle());
+        assertThat(loaded.getDescription()).isNull();
+        assertThat(loaded.getUpdatedAt()).isEqualTo(todo.getUpdatedAt());
+        assertThat(TodoCursor.of(loaded)).isEqualTo(TodoCursor.of(todo));
+    }
+
+    @Test
+    @DisplayName("Search ranks title matches first and pages by cursor")
+    void search() {
+        todo.setTitle("Buy milk");
+        todo.setDescription("On the way home");
+        todoRepository.save(todo);
+        TodoEntity descriptionMatch = new TodoEntity();
+        descriptionMatch.setTitle("Groceries");
+        descriptionMatch.setDescription("Milk and bread");
+        todoRepository.save(descriptionMatch);
+        TodoEntity unrelated = new TodoEntity();
+        unrelated.setTitle("Call mom");
+        todoRepository.save(unrelated);
+
+        List<TodoSearchHit> firstPage = todoRepository.search("milk", null, 1);
+        assertThat(firstPage).extracting(hit -> hit.todo().getId()).containsExactly(todo.getId());
+
+        List<TodoSearchHit> secondPage = todoRepository.search("milk", SearchCursor.of(firstPage.get(0)), 2);
+        assertThat(secondPage).extracting(hit -> hit.todo().getId()).containsExactly(descriptionMatch.getId());
+        assertThat(secondPage.get(0).rank()).isLessThan(firstPage.get(0).rank());
+    }
+
+    @Test
+    @DisplayName("Filter by completion and date range with matching counts")
+    void findAllFiltered() {
+        todoRepository.save(todo);
+        TodoEntity done = new TodoEntity();
+        done.setTitle("Done Title");
+        done.setCompleted(true);
+        todoRepository.save(done);
+        LocalDateTime from = todo.getCreatedAt().minusSeconds(1);
+
+        TodoFilter open = new TodoFilter(false, from, null, null, null);
+        assertThat(todoRepository.findAllAfter(open, null, 10, TodoField.ALL))
+                .extracting(TodoEntity::getId).containsExactly(todo.getId());
+        assertThat(todoRepository.findAll(open, PageRequest.of(0, 10), TodoField.ALL))
+                .extracting(TodoEntity::getId).containsExactly(todo.getId());
+        assertThat(todoRepository.count(open)).isEqualTo(1);
+        assertThat(todoRepository.estimateCount(open)).isGreaterThanOrEqualTo(1);
+
+        TodoFilter updatedBefore = new TodoFilter(true, from, null, null, from);
+        assertThat(todoRepository.findAllAfter(updatedBefore, null, 10, TodoField.ALL)).isEmpty();
+        assertThat(todoRepository.count(updatedBefore)).isZero();
+    }
+
+    @Test
+    @DisplayName("Count follows inserts and deletes")
+    void count() {
+        long before = todoRepository.count();
+
+        todoRepository.save(todo);
+        assertThat(todoRepository.count()).isEqualTo(before + 1);
+
+        todoRepository.deleteById(todo.getId());
+        assertThat(todoRepository.count()).isEqualTo(before);
+    }
+
+    @Test
+    @DisplayName("Save todos in batch")
+    void saveAll() {
+        TodoEntity second = new TodoEntity();
+        second.setTitle("Second Title");
+        second.setCompleted(true);
+
+        todoRepository.saveAll(List.of(todo, second));
+
+        assertThat(todo.getId()).isNotNull();
+        assertThat(second.getId()).isGreaterThan(todo.getId());
+        assertThat(todoRepository.findById(second.getId()))
+                .hasValueSatisfying(found -> assertThat(found.isCompleted()).isTrue());
+        // Both share created_at, so offset and cursor pages must break the tie the same way.
+        assertThat(todoRepository.findAll(TodoFilter.NONE, PageRequest.of(0, 2), TodoField.ALL))
+                .extracting(TodoEntity::getId)
+                .containsExactly(second.getId(), todo.getId());
+        assertThat(todoRepository.findAllAfter(TodoFilter.NONE, null, 2, TodoField.ALL))
+                .extracting(TodoEntity::getId)
+                .containsExactly(second.getId(), todo.getId());
+    }
+
+    @Test
+    @DisplayName("Load todos with COPY, keep the maintained count in sync and report the loaded ids")
+    void copyAll() {
+        long before = todoRepository.count();
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        TodoEntity quoted = new TodoEntity();
+        quoted.setTitle("Say \"hi\", then leave");
+        quoted.setDescription("Line one\nLine two");
+        quoted.setCompleted(true);
+        quoted.setCreatedAt(now);
+        quoted.setUpdatedAt(now);
+
+        todoRepository.save(todo);
+        List<Long> ids = new TransactionTemplate(transactionManager).execute(status -> {
+            assertThat(todoRepository.copyAll(List.of(quoted))).isEqualTo(1);
+            return todoRepository.findIdsWrittenInCurrentTransaction();
+        });
+
+        assertThat(ids).hasSize(1).doesNotContain(todo.getId());
+        assertThat(todoRepository.count()).isEqualTo(before + 2);
+        TodoEntity loaded = todoRepository.findById(ids.get(0)).orElseThrow();
+        assertThat(loaded.getTitle()).isEqualTo(quoted.getTitle());
+        assertThat(loaded.getDescription()).isEqualTo(quoted.getDescription());
+        assertThat(loaded.getCreatedAt()).isEqualTo(now);
+    }
+
+    @Test
+    @DisplayName("Mark todos as completed and delete them in batch")
+    void markAllAsCompletedAndDeleteAllById() {
+        todoRepository.save(todo);
+
+        List<TodoEntity> completed = todoRepository.markAllAsCompleted(List.of(todo.getId(), 9999L), LocalDateTime.now());
+        assertThat(completed).extracting(TodoEntity::getId).containsExactly(todo.getId());
+        assertThat(completed.get(0).isCompleted()).isTrue();
+
+        List<Long> deleted = todoRepository.deleteAllById(List.of(todo.getId(), 9999L));
+        assertThat(deleted).containsExactly(todo.getId());
+        assertThat(todoRepository.existsById(todo.getId())).isFalse();
+    }
+
+    @Test
+    @DisplayName("Changes after a token include updates and deletes, compaction records the purged range")
+    void findChangesAfterAndPurgeTombstones() {
+        todoRepository.save(todo);
+        TodoEntity other = new TodoEntity();
+        other.setTitle("Other Title");
+        todoRepository.save(other);
+        ChangeToken start = new ChangeToken(todoRepository.changeHorizon(), 0);
+
+        todoRepository.markAsCompleted(todo.getId(), LocalDateTime.now(), null);
+        todoRepository.deleteById(other.getId());
+
+        List<TodoChange> changes = todoRepository.findChangesAfter(start, todoRepository.changeHorizon(), 10);
+        assertThat(changes).extracting(TodoChange::id).containsExactly(todo.getId(), other.getId());
+        assertThat(changes.get(0).todo().isCompleted()).isTrue();
+        assertThat(changes.get(1).isDeleted()).isTrue();
+        assertThat(todoRepository.findChangesAfter(ChangeToken.of(changes.get(1)), todoRepository.changeHorizon(), 10))
+                .isEmpty();
+
+        assertThat(todoRepository.purgeTombstones(LocalDateTime.now().plusMinutes(1))).isPositive();
+        assertThat(todoRepository.changeTokenFloor()).isGreaterThan(changes.get(1).changeXid());
+    }
 }
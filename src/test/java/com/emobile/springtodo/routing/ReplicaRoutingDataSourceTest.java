@@ -0,0 +1,133 @@
+package com.emobile.springtodo.routing;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReplicaRoutingDataSourceTest {
+
+    private final Connection primaryConnection = mock(Connection.class);
+
+    private final Connection replica0Connection = mock(Connection.class);
+
+    private final Connection replica1Connection = mock(Connection.class);
+
+    private final ReplicaSet replicaSet = mock(ReplicaSet.class);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private ReplicaRoutingDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        doReturn(dataSource(primaryConnection)).when(replicaSet).primary();
+        doReturn(Map.of("replica-0", dataSource(replica0Connection), "replica-1", dataSource(replica1Connection)))
+                .when(replicaSet).replicas();
+        when(replicaSet.available()).thenReturn(List.of("replica-0", "replica-1"));
+        dataSource = new ReplicaRoutingDataSource(replicaSet, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        ReplicaRoutingDataSource.unpin();
+        ReplicaRoutingDataSource.endCacheLoad();
+    }
+
+    @Test
+    @DisplayName("Read-only transactions take turns across the replicas")
+    void readOnlyGoesToReplicas() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertThat(List.of(dataSource.getConnection(), dataSource.getConnection(), dataSource.getConnection()))
+                .containsExactly(replica0Connection, replica1Connection, replica0Connection);
+        assertThat(routed("replica-0", "read-only")).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Writes and reads without a transaction go to the primary")
+    void writesGoToPrimary() throws SQLException {
+        assertThat(dataSource.getConnection()).isSameAs(primaryConnection);
+        assertThat(routed("primary", "read-write")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Reads stay on the primary while pinned, while loading a cache value, or with no replica in lag")
+    void readOnlyFallsBackToPrimary() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        ReplicaRoutingDataSource.pinToPrimary();
+        assertThat(dataSource.getConnection()).isSameAs(primaryConnection);
+        ReplicaRoutingDataSource.unpin();
+
+        assertThat(ReplicaRoutingDataSource.beginCacheLoad()).isTrue();
+        assertThat(ReplicaRoutingDataSource.beginCacheLoad()).isFalse();
+        assertThat(dataSource.getConnection()).isSameAs(primaryConnection);
+        ReplicaRoutingDataSource.endCacheLoad();
+        assertThat(dataSource.getConnection()).isSameAs(replica0Connection);
+
+        when(replicaSet.available()).thenReturn(List.of());
+        assertThat(dataSource.getConnection()).isSameAs(primaryConnection);
+
+        assertThat(routed("primary", "pinned")).isEqualTo(1);
+        assertThat(routed("primary", "cache-load")).isEqualTo(1);
+        assertThat(routed("primary", "no-replica")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Methods marked @CacheLoad read from the primary")
+    void cacheLoadGoesToPrimary() throws SQLException {
+        AspectJProxyFactory factory = new AspectJProxyFactory(new Reader(dataSource));
+        factory.setProxyTargetClass(true);
+        factory.addAspect(CacheLoadAspect.class);
+        Reader reader = factory.getProxy();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertThat(reader.load()).isSameAs(primaryConnection);
+        assertThat(reader.read()).isSameAs(replica0Connection);
+    }
+
+    private static DataSource dataSource(Connection connection) throws SQLException {
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        return dataSource;
+    }
+
+    private double routed(String target, String reason) {
+        return meterRegistry.get("todo.datasource.routing").tag("target", target).tag("reason", reason)
+                .counter().count();
+    }
+
+    static class Reader {
+
+        private final DataSource dataSource;
+
+        Reader(DataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        @CacheLoad
+        public Connection load() throws SQLException {
+            return dataSource.getConnection();
+        }
+
+        public Connection read() throws SQLException {
+            return dataSource.getConnection();
+        }
+    }
+}
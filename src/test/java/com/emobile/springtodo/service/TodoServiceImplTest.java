@@ -1,30 +1,67 @@
 package com.emobile.springtodo.service;
 
+import com.emobile.springtodo.cache.TodoCacheOperations;
+import com.emobile.springtodo.cache.TodoIdFilter;
+import com.emobile.springtodo.cache.TodoListVersion;
+import com.emobile.springtodo.config.RedisConfig;
+import com.emobile.springtodo.dto.request.CountMode;
+import com.emobile.springtodo.dto.request.TodoField;
+import com.emobile.springtodo.dto.request.TodoFilter;
 import com.emobile.springtodo.dto.request.TodoRequestDTO;
+import com.emobile.springtodo.dto.response.BatchCreateResponseDTO;
+import com.emobile.springtodo.dto.response.BatchOperationResponseDTO;
 import com.emobile.springtodo.dto.response.PageResponse;
 import com.emobile.springtodo.dto.response.TodoResponseDTO;
 import com.emobile.springtodo.entity.TodoEntity;
+import com.emobile.springtodo.exception.BadRequestException;
+import com.emobile.springtodo.exception.BatchValidationException;
 import com.emobile.springtodo.exception.CustomException;
+import com.emobile.springtodo.exception.GoneException;
+import com.emobile.springtodo.exception.PreconditionFailedException;
 import com.emobile.springtodo.mapper.TodoMapper;
+import com.emobile.springtodo.pagination.ChangeToken;
+import com.emobile.springtodo.pagination.TodoCursor;
 import com.emobile.springtodo.repository.TodoRepository;
+import com.emobile.springtodo.writebehind.PendingWrite;
+import com.emobile.springtodo.writebehind.TodoWriteBehindQueue;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Path;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -39,9 +76,32 @@ class TodoServiceImplTest {
     @Mock
     private TodoMetricsService metricsService;
 
+    @Mock
+    private Validator validator;
+
+    @Mock
+    private TodoCacheOperations cacheOperations;
+
+    @Mock
+    private TodoListVersion listVersion;
+
+    @Mock
+    private TodoWriteBehindQueue writeBehind;
+
+    @Mock
+    private TodoIdFilter idFilter;
+
+    @Spy
+    private ObjectMapper objectMapper = new RedisConfig().objectMapper();
+
     @InjectMocks
     private TodoServiceImpl todoService;
 
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(todoService, "maxBatchSize", 3);
+    }
+
     @Test
     @DisplayName("Create todo")
     void createSuccess() {
@@ -67,6 +127,7 @@ class TodoServiceImplTest {
         assertThat(result.id()).isEqualTo(1L);
         assertThat(result.title()).isEqualTo("Task1");
         verify(repository).save(entity);
+        verify(listVersion).bump();
         verify(mapper).requestToEntity(request);
         verify(mapper).entityToResponse(entity);
     }
@@ -78,6 +139,64 @@ class TodoServiceImplTest {
                 .isInstanceOf(NullPointerException.class);
     }
 
+    @Test
+    @DisplayName("Create todos in batch returns ids in order")
+    void createAllSuccess() {
+        TodoRequestDTO first = new TodoRequestDTO("Task1", "Description", false);
+        TodoRequestDTO second = new TodoRequestDTO("Task2", "Description", true);
+
+        when(mapper.requestToEntity(any(TodoRequestDTO.class)))
+                .thenAnswer(invocation -> new TodoEntity());
+        doAnswer(invocation -> {
+            List<TodoEntity> entities = invocation.getArgument(0);
+            for (int i = 0; i < entities.size(); i++) {
+                entities.get(i).setId(10L + i);
+            }
+            return null;
+        }).when(repository).saveAll(anyList());
+
+        BatchCreateResponseDTO result = todoService.createAll(List.of(first, second));
+
+        assertThat(result.ids()).isEqualTo(List.of(10L, 11L));
+    }
+
+    @Test
+    @DisplayName("Fail create todos in batch reports invalid items")
+    @SuppressWarnings("unchecked")
+    void createAllFailValidation() {
+        TodoRequestDTO valid = new TodoRequestDTO("Task1", "Description", false);
+        TodoRequestDTO invalid = new TodoRequestDTO("", "Description", false);
+
+        ConstraintViolation<TodoRequestDTO> violation = mock(ConstraintViolation.class);
+        Path path = mock(Path.class);
+        when(path.toString()).thenReturn("title");
+        when(violation.getPropertyPath()).thenReturn(path);
+        when(violation.getMessage()).thenReturn("must not be blank");
+        when(validator.validate(valid)).thenReturn(Set.of());
+        when(validator.validate(invalid)).thenReturn(Set.of(violation));
+
+        assertThatThrownBy(() -> todoService.createAll(List.of(valid, invalid)))
+                .isInstanceOf(BatchValidationException.class)
+                .satisfies(ex -> assertThat(((BatchValidationException) ex).getErrors())
+                        .isEqualTo(Map.of(1, Map.of("title", "must not be blank"))));
+        verify(repository, never()).saveAll(anyList());
+    }
+
+    @Test
+    @DisplayName("Fail batches larger than the configured maximum")
+    void createAllFailTooLarge() {
+        List<TodoRequestDTO> requests = Stream.generate(() -> new TodoRequestDTO("Task", "Description", false))
+                .limit(4)
+                .toList();
+
+        assertThatThrownBy(() -> todoService.createAll(requests))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("at most 3");
+        assertThatThrownBy(() -> todoService.deleteAll(List.of(1L, 2L, 3L, 4L)))
+                .isInstanceOf(BadRequestException.class);
+        verifyNoInteractions(repository, validator);
+    }
+
     @Test
     @DisplayName("Get todo by Id")
     void getByIdSuccess() {
@@ -111,6 +230,34 @@ class TodoServiceImplTest {
                 .hasMessageContaining("Task " + id +" not found ");
     }
 
+    @Test
+    @DisplayName("Fail get todo ruled out by the id filter without a query")
+    void getByIdFailFilteredOut() {
+        Long id = 5L;
+        when(idFilter.isDefinitelyAbsent(id)).thenReturn(true);
+
+        assertThatThrownBy(() -> todoService.getById(id))
+                .isInstanceOf(CustomException.class);
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    @DisplayName("Missing todo below the filter watermark is remembered")
+    void getByIdFailRemembersMissing() {
+        Long id = 5L;
+        when(idFilter.covers(id)).thenReturn(true);
+        when(repository.findById(id)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> todoService.getById(id))
+                .isInstanceOf(CustomException.class);
+        verify(cacheOperations).markMissing(id);
+
+        when(cacheOperations.isKnownMissing(id)).thenReturn(true);
+        assertThatThrownBy(() -> todoService.getById(id))
+                .isInstanceOf(CustomException.class);
+        verify(repository).findById(id);
+    }
+
     @Test
     @DisplayName("Get all todos with pagination")
     void getAll() {
@@ -122,24 +269,91 @@ class TodoServiceImplTest {
             TodoEntity entity2 = new TodoEntity(2L, "Task2", "Desc2", false, null, null);
             List<TodoEntity> entityList = List.of(entity1, entity2);
 
-            Page<TodoEntity> pageResult = new PageImpl<>(entityList, pageable, 2);
-
-            when(repository.findAll(pageable)).thenReturn(pageResult);
+            when(repository.findAll(TodoFilter.NONE, pageable, TodoField.ALL)).thenReturn(entityList);
+            when(repository.count(TodoFilter.NONE)).thenReturn(2L);
 
             when(mapper.listTodoEntityToListTodoResponse(entityList)).thenReturn(List.of(
                     new TodoResponseDTO(1L, "Task1", "Desc1", false, null, null),
                     new TodoResponseDTO(2L, "Task2", "Desc2", false, null, null)
             ));
 
-            PageResponse<TodoResponseDTO> result = todoService.getAll(page, perPage);
+            PageResponse<TodoResponseDTO> result = todoService.getAll("0", page, perPage, CountMode.EXACT, TodoFilter.NONE, TodoField.ALL);
 
             assertThat(result.content().get(0).title()).isEqualTo("Task1");
             assertThat(result.content().get(1).title()).isEqualTo("Task2");
+            assertThat(result.numberOfElements()).isEqualTo(2L);
 
-            verify(repository).findAll(pageable);
+            verify(repository).findAll(TodoFilter.NONE, pageable, TodoField.ALL);
             verify(mapper).listTodoEntityToListTodoResponse(entityList);
     }
 
+    @Test
+    @DisplayName("Get all todos without count")
+    void getAllWithoutCount() {
+        Pageable pageable = PageRequest.of(0, 10);
+        when(repository.findAll(TodoFilter.NONE, pageable, TodoField.ALL)).thenReturn(List.of());
+        when(mapper.listTodoEntityToListTodoResponse(List.of())).thenReturn(List.of());
+
+        PageResponse<TodoResponseDTO> result = todoService.getAll("0", 1, 10, CountMode.NONE, TodoFilter.NONE, TodoField.ALL);
+
+        assertThat(result.numberOfElements()).isNull();
+        verify(repository, never()).count(any());
+        verify(repository, never()).estimateCount(any());
+    }
+
+    @Test
+    @DisplayName("Get todos by cursor returns next cursor when more rows exist")
+    void getAllByCursor() {
+        LocalDateTime now = LocalDateTime.now();
+        TodoEntity entity1 = new TodoEntity(3L, "Task3", "Desc3", false, now, now);
+        TodoEntity entity2 = new TodoEntity(2L, "Task2", "Desc2", false, now.minusMinutes(1), now);
+        TodoEntity entity3 = new TodoEntity(1L, "Task1", "Desc1", false, now.minusMinutes(2), now);
+
+        when(repository.findAllAfter(TodoFilter.NONE, null, 3, TodoField.ALL)).thenReturn(List.of(entity1, entity2, entity3));
+        when(mapper.listTodoEntityToListTodoResponse(List.of(entity1, entity2))).thenReturn(List.of(
+                new TodoResponseDTO(3L, "Task3", "Desc3", false, null, null),
+                new TodoResponseDTO(2L, "Task2", "Desc2", false, null, null)
+        ));
+
+        PageResponse<TodoResponseDTO> result = todoService.getAllByCursor("", 2, TodoFilter.NONE, TodoField.ALL);
+
+        assertThat(result.content().size()).isEqualTo(2);
+        assertThat(result.numberOfElements()).isNull();
+        assertThat(TodoCursor.decode(result.nextCursor())).isEqualTo(TodoCursor.of(entity2));
+    }
+
+    @Test
+    @DisplayName("Fail get todos by malformed cursor")
+    void getAllByCursorFailInvalidCursor() {
+        assertThatThrownBy(() -> todoService.getAllByCursor("not-a-cursor", 10, TodoFilter.NONE, TodoField.ALL))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    @DisplayName("Fail list and search with a page size out of range")
+    void getAllFailInvalidPerPage() {
+        assertThatThrownBy(() -> todoService.getAllByCursor("", 0, TodoFilter.NONE, TodoField.ALL))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> todoService.search("milk", null, -1))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> todoService.getAll("0", 1, TodoServiceImpl.MAX_PER_PAGE + 1, CountMode.EXACT,
+                TodoFilter.NONE, TodoField.ALL))
+                .isInstanceOf(BadRequestException.class);
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    @DisplayName("Fail get changes with a token older than the compacted tombstones")
+    void getChangesFailExpiredToken() {
+        ChangeToken since = new ChangeToken(40, 7);
+        when(repository.changeHorizon()).thenReturn(100L);
+        when(repository.findChangesAfter(since, 100L, 11)).thenReturn(List.of());
+        when(repository.changeTokenFloor()).thenReturn(50L);
+
+        assertThatThrownBy(() -> todoService.getChanges(since.encode(), 10))
+                .isInstanceOf(GoneException.class);
+    }
+
     @Test
     @DisplayName("Update todo")
     void updateSuccess() {
@@ -148,52 +362,131 @@ class TodoServiceImplTest {
 
         TodoEntity entity = new TodoEntity();
         entity.setId(id);
-        entity.setTitle("Old");
-        entity.setDescription("Old Desc");
+        entity.setTitle("Updated");
+        entity.setDescription("Updated Desc");
 
         TodoResponseDTO responseDTO = new TodoResponseDTO(
                 id, "Updated", "Updated Desc", false,
                 LocalDateTime.now(), LocalDateTime.now()
         );
 
-        when(repository.findById(id)).thenReturn(Optional.of(entity));
+        when(repository.updateDetails(eq(id), eq("Updated"), eq("Updated Desc"), any(LocalDateTime.class), isNull()))
+                .thenReturn(Optional.of(entity));
         when(mapper.entityToResponse(entity)).thenReturn(responseDTO);
 
-        TodoResponseDTO result = todoService.update(id, request);
+        TodoResponseDTO result = todoService.update(id, request, null);
 
         assertThat(result.title()).isEqualTo("Updated");
-        verify(repository).update(entity);
+        verify(repository, never()).findById(id);
+    }
+
+    @Test
+    @DisplayName("Export todos as newline-delimited JSON")
+    void exportAll() throws IOException {
+        TodoEntity first = new TodoEntity();
+        first.setId(1L);
+        TodoEntity second = new TodoEntity();
+        second.setId(2L);
+        doAnswer(invocation -> {
+            Consumer<TodoEntity> action = invocation.getArgument(0);
+            action.accept(first);
+            action.accept(second);
+            return null;
+        }).when(repository).streamAll(any());
+        when(mapper.entityToResponse(first)).thenReturn(new TodoResponseDTO(1L, "One", null, false, null, null));
+        when(mapper.entityToResponse(second)).thenReturn(new TodoResponseDTO(2L, "Two", null, true, null, null));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        todoService.exportAll(out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines.length).isEqualTo(2);
+        assertThat(objectMapper.readValue(lines[1], TodoResponseDTO.class).title()).isEqualTo("Two");
+    }
+
+    @Test
+    @DisplayName("Queue update in write-behind mode")
+    void updateWriteBehind() {
+        Long id = 5L;
+        LocalDateTime createdAt = LocalDateTime.now().minusDays(1);
+        TodoResponseDTO cached = new TodoResponseDTO(id, "Old", "Old Desc", true, createdAt, createdAt);
+        when(writeBehind.isEnabled()).thenReturn(true);
+        when(cacheOperations.get(id)).thenReturn(cached);
+
+        TodoResponseDTO result = todoService.update(id, new TodoRequestDTO("New", "New Desc", false), null);
+
+        assertThat(result.title()).isEqualTo("New");
+        assertThat(result.completed()).isTrue();
+        assertThat(result.createdAt()).isEqualTo(createdAt);
+        verify(writeBehind).enqueue(PendingWrite.details(id, "New", "New Desc", result.updatedAt()));
+        verify(listVersion).bump();
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    @DisplayName("List pages show writes still queued in write-behind mode")
+    void getAllByCursorWriteBehind() {
+        LocalDateTime now = LocalDateTime.now();
+        TodoEntity entity = new TodoEntity(1L, "Old", "Desc", false, now, now);
+        TodoResponseDTO stored = new TodoResponseDTO(1L, "Old", "Desc", false, now, now);
+        TodoResponseDTO queued = new TodoResponseDTO(1L, "Old", "Desc", true, now, now.plusSeconds(1));
+        when(writeBehind.isEnabled()).thenReturn(true);
+        when(writeBehind.overlay(stored)).thenReturn(queued);
+        when(repository.findAllAfter(TodoFilter.NONE, null, 11, TodoField.ALL)).thenReturn(List.of(entity));
+        when(mapper.listTodoEntityToListTodoResponse(List.of(entity))).thenReturn(List.of(stored));
+
+        PageResponse<TodoResponseDTO> result = todoService.getAllByCursor("", 10, TodoFilter.NONE, TodoField.ALL);
+
+        assertThat(result.content()).isEqualTo(List.of(queued));
     }
 
     @Test
     @DisplayName("Fail update todo by non-existent Id")
     void updateFailNotFound() {
         Long id = 42L;
-        when(repository.findById(id)).thenReturn(Optional.empty());
+        when(repository.updateDetails(eq(id), eq("New"), eq("New desc"), any(LocalDateTime.class), isNull()))
+                .thenReturn(Optional.empty());
 
         TodoRequestDTO request = new TodoRequestDTO("New", "New desc", false);
 
-        assertThatThrownBy(() -> todoService.update(id, request))
+        assertThatThrownBy(() -> todoService.update(id, request, null))
                 .isInstanceOf(CustomException.class)
                 .hasMessageContaining("Task " + id +" not found ");
     }
 
+    @Test
+    @DisplayName("Fail conditional update of a todo changed since the expected version")
+    void updateFailPreconditionFailed() {
+        Long id = 42L;
+        LocalDateTime expected = LocalDateTime.now().minusMinutes(1);
+        when(repository.updateDetails(eq(id), eq("New"), eq("New desc"), any(LocalDateTime.class), eq(expected)))
+                .thenReturn(Optional.empty());
+        when(repository.existsById(id)).thenReturn(true);
+
+        TodoRequestDTO request = new TodoRequestDTO("New", "New desc", false);
+
+        assertThatThrownBy(() -> todoService.update(id, request, expected))
+                .isInstanceOf(PreconditionFailedException.class);
+    }
+
     @Test
     @DisplayName("Delete todo by Id")
     void deleteSuccess() {
         Long id = 1L;
-        when(repository.existsById(id)).thenReturn(true);
+        when(repository.deleteById(id)).thenReturn(true);
 
         todoService.delete(id);
 
         verify(repository).deleteById(id);
+        verify(repository, never()).existsById(id);
+        verify(listVersion).bump();
     }
 
     @Test
     @DisplayName("Fail delete by non-existent Id")
     void deleteFailNotFound() {
         Long id = 999L;
-        when(repository.existsById(id)).thenReturn(false);
+        when(repository.deleteById(id)).thenReturn(false);
 
         assertThatThrownBy(() -> todoService.delete(id))
                 .isInstanceOf(CustomException.class)
@@ -207,20 +500,20 @@ class TodoServiceImplTest {
         TodoEntity entity = new TodoEntity();
         entity.setId(id);
         entity.setTitle("Test");
-        entity.setCompleted(false);
+        entity.setCompleted(true);
 
         TodoResponseDTO dto = new TodoResponseDTO(
                 id, "Test", "Desc", true,
                 LocalDateTime.now(), LocalDateTime.now()
         );
 
-        when(repository.findById(id)).thenReturn(Optional.of(entity));
+        when(repository.markAsCompleted(eq(id), any(LocalDateTime.class), isNull())).thenReturn(Optional.of(entity));
         when(mapper.entityToResponse(entity)).thenReturn(dto);
 
-        TodoResponseDTO result = todoService.markAsCompleted(id);
+        TodoResponseDTO result = todoService.markAsCompleted(id, null);
 
         assertThat(result.completed()).isTrue();
-        verify(repository).update(entity);
+        verify(repository, never()).findById(id);
         verify(metricsService).incrementCompleted();
     }
 
@@ -228,10 +521,42 @@ class TodoServiceImplTest {
     @DisplayName("Fail mark a todo by non-existent Id as completed")
     void markAsCompletedFailNotFound() {
         Long id = 404L;
-        when(repository.findById(id)).thenReturn(Optional.empty());
+        when(repository.markAsCompleted(eq(id), any(LocalDateTime.class), isNull())).thenReturn(Optional.empty());
 
-        assertThatThrownBy(() -> todoService.markAsCompleted(id))
+        assertThatThrownBy(() -> todoService.markAsCompleted(id, null))
                 .isInstanceOf(CustomException.class)
                 .hasMessageContaining("Task " + id +" not found ");
     }
+
+    @Test
+    @DisplayName("Mark todos as completed in batch")
+    void markAllAsCompletedSuccess() {
+        TodoEntity entity = new TodoEntity(1L, "Test", "Desc", true, null, null);
+        List<TodoResponseDTO> dtoList = List.of(new TodoResponseDTO(1L, "Test", "Desc", true, null, null));
+
+        when(repository.markAllAsCompleted(eq(List.of(1L, 2L)), any(LocalDateTime.class)))
+                .thenReturn(List.of(entity));
+        when(mapper.listTodoEntityToListTodoResponse(List.of(entity))).thenReturn(dtoList);
+
+        BatchOperationResponseDTO result = todoService.markAllAsCompleted(List.of(1L, 2L));
+
+        assertThat(result.processed()).isEqualTo(List.of(1L));
+        assertThat(result.missing()).isEqualTo(List.of(2L));
+        verify(cacheOperations).refresh(dtoList);
+        verify(metricsService).incrementCompleted(1);
+    }
+
+    @Test
+    @DisplayName("Delete todos in batch")
+    void deleteAllSuccess() {
+        when(repository.deleteAllById(List.of(1L, 2L, 3L))).thenReturn(List.of(3L, 1L));
+
+        BatchOperationResponseDTO result = todoService.deleteAll(List.of(1L, 2L, 3L));
+
+        assertThat(result.processed()).isEqualTo(List.of(3L, 1L));
+        assertThat(result.missing()).isEqualTo(List.of(2L));
+        verify(cacheOperations).evict(List.of(3L, 1L));
+        verify(cacheOperations).markMissing(List.of(3L, 1L));
+        verify(writeBehind).discard(2L);
+    }
 }
@@ -0,0 +1,88 @@
+package com.emobile.springtodo.writebehind;
+
+import com.emobile.springtodo.cache.TodoCacheOperations;
+import com.emobile.springtodo.cache.TodoListVersion;
+import com.emobile.springtodo.exception.ServiceUnavailableException;
+import com.emobile.springtodo.repository.TodoRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class TodoWriteBehindQueueTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 11, 3, 12, 0);
+
+    @Mock
+    private TodoRepository repository;
+
+    @Mock
+    private TodoCacheOperations cacheOperations;
+
+    @Mock
+    private TodoListVersion listVersion;
+
+    private TodoWriteBehindQueue queue(int maxPending) {
+        return new TodoWriteBehindQueue(repository, cacheOperations, listVersion, new SimpleMeterRegistry(),
+                true, maxPending, 500, Duration.ofHours(1));
+    }
+
+    @Test
+    @DisplayName("Coalesce repeated writes to one todo into a single statement")
+    @SuppressWarnings("unchecked")
+    void coalesce() {
+        TodoWriteBehindQueue queue = queue(100);
+        queue.start();
+
+        queue.enqueue(PendingWrite.details(1L, "First", "One", NOW));
+        queue.enqueue(PendingWrite.completion(1L, NOW.plusSeconds(1)));
+        queue.enqueue(PendingWrite.details(1L, "Second", null, NOW.plusSeconds(2)));
+        queue.enqueue(PendingWrite.completion(2L, NOW));
+        assertThat(queue.pendingCount()).isEqualTo(2);
+
+        queue.flush();
+
+        ArgumentCaptor<List<PendingWrite>> batch = ArgumentCaptor.forClass(List.class);
+        verify(repository).applyWrites(batch.capture());
+        assertThat(batch.getValue()).containsExactlyInAnyOrder(
+                new PendingWrite(1L, true, "Second", null, true, NOW.plusSeconds(2)),
+                PendingWrite.completion(2L, NOW));
+        verify(listVersion).bump();
+        assertThat(queue.pendingCount()).isZero();
+        queue.stop();
+    }
+
+    @Test
+    @DisplayName("Keep writes after a failed flush and reject once the backlog is full")
+    void backpressure() {
+        TodoWriteBehindQueue queue = queue(1);
+        queue.start();
+        doThrow(new IllegalStateException("db down")).when(repository).applyWrites(anyList());
+
+        queue.enqueue(PendingWrite.completion(1L, NOW));
+        queue.flush();
+        assertThat(queue.pendingCount()).isEqualTo(1);
+
+        assertThatThrownBy(() -> queue.enqueue(PendingWrite.completion(2L, NOW)))
+                .isInstanceOf(ServiceUnavailableException.class);
+
+        doNothing().when(repository).applyWrites(anyList());
+        queue.stop();
+        assertThat(queue.pendingCount()).isZero();
+    }
+}